@@ -0,0 +1,83 @@
+package com.hopl.security;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token checks done on every authenticated request. {@link #authenticate()} is the
+ * per-request cost of a token seen before: the filter looks it up by hash and controllers
+ * read the principal. {@link #verifyThreeTimes()} is what the filter and a controller used to do
+ * between them, with the provider's parser and no cache.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenProviderBenchmark {
+
+    private JwtTokenProvider tokenProvider;
+    private JwtParser parser;
+    private String token;
+
+    @Setup
+    public void prepare() {
+        tokenProvider = new JwtTokenProvider();
+        ReflectionTestUtils.setField(tokenProvider, "secret", "benchmark-secret-key-with-at-least-256-bits!!");
+        ReflectionTestUtils.setField(tokenProvider, "expiration", TimeUnit.HOURS.toMillis(1));
+        ReflectionTestUtils.setField(tokenProvider, "cacheMaxSize", 10_000L);
+        tokenProvider.init();
+        parser = (JwtParser) ReflectionTestUtils.getField(tokenProvider, "parser");
+        token = tokenProvider.generateToken(42L, "bench@example.com");
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return validate(token);
+    }
+
+    @Benchmark
+    public Long getUserIdFromToken() {
+        return userIdOf(token);
+    }
+
+    @Benchmark
+    public Long validateThenGetUserId() {
+        return validate(token) ? userIdOf(token) : null;
+    }
+
+    /** The filter's validation and user ID lookup, then the controller's own lookup. */
+    @Benchmark
+    public Long verifyThreeTimes() {
+        if (!validate(token)) {
+            return null;
+        }
+        userIdOf(token);
+        return userIdOf(token);
+    }
+
+    @Benchmark
+    public Long authenticate() {
+        return tokenProvider.authenticate(token);
+    }
+
+    /** The former {@code JwtTokenProvider.validateToken}: a full signature check. */
+    private boolean validate(String token) {
+        try {
+            parser.parseSignedClaims(token);
+            return true;
+        } catch (JwtException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /** The former {@code JwtTokenProvider.getUserIdFromToken}: another full signature check. */
+    private Long userIdOf(String token) {
+        return Long.parseLong(parser.parseSignedClaims(token).getPayload().getSubject());
+    }
+}
@@ -0,0 +1,43 @@
+package com.hopl.service;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput and allocation of analyzing stored pages, with and without the Jsoup
+ * parse that precedes every analysis in a scan.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ComplianceAnalyzerBenchmark {
+
+    @Param({"bakery-small", "store-medium", "news-large"})
+    public String fixture;
+
+    private final ComplianceAnalyzer analyzer = new ComplianceAnalyzer();
+    private String html;
+    private Document document;
+
+    @Setup
+    public void load() {
+        html = Fixtures.read(fixture + ".html");
+        document = Jsoup.parse(html, Fixtures.URL);
+    }
+
+    @Benchmark
+    public ComplianceAnalyzer.AnalysisResult analyze() {
+        return analyzer.analyze(document, Fixtures.URL);
+    }
+
+    @Benchmark
+    public ComplianceAnalyzer.AnalysisResult parseAndAnalyze() {
+        return analyzer.analyze(Jsoup.parse(html, Fixtures.URL), Fixtures.URL);
+    }
+}
@@ -0,0 +1,29 @@
+package com.hopl.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Loads benchmark fixtures from {@code src/jmh/resources/fixtures}.
+ */
+final class Fixtures {
+
+    /** Base URL the HTML fixtures are analyzed as. */
+    static final String URL = "https://www.example.com";
+
+    private Fixtures() {
+    }
+
+    static String read(String name) {
+        try (InputStream in = Fixtures.class.getResourceAsStream("/fixtures/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("No fixture " + name);
+            }
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hopl.service;
+
+import com.hopl.service.rules.KeywordMatcher;
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Raw keyword automaton speed over the serialized markup of each fixture, the
+ * worst case of one scan per page.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeywordMatcherBenchmark {
+
+    @Param({"bakery-small", "store-medium", "news-large"})
+    public String fixture;
+
+    private String markup;
+
+    @Setup
+    public void load() {
+        markup = Jsoup.parse(Fixtures.read(fixture + ".html"), Fixtures.URL).html();
+    }
+
+    @Benchmark
+    public int scan() {
+        return KeywordMatcher.DEFAULT.scan(markup);
+    }
+}
@@ -0,0 +1,77 @@
+package com.hopl.service;
+
+import com.lowagie.text.pdf.PdfReader;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDF export of a one-page policy and of a long document of at least 50 pages, built
+ * by repeating the policy until the renderer produces that many. The cookie policy
+ * exercises tables, numbered lists and inline emphasis. Exports either buffer the whole
+ * PDF in memory or stream it to a discarding sink, as the download endpoint does;
+ * compare their {@code gc.alloc.rate.norm}. The {@code pages} counter reports rendered
+ * pages per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PdfExportBenchmark {
+
+    @Param({"1", "50"})
+    public int pages;
+
+    @Param({"privacy-policy.md", "cookie-policy.md"})
+    public String fixture;
+
+    private final PdfExportService pdfExportService = new PdfExportService();
+    private String content;
+    private int pageCount;
+
+    @Setup
+    public void prepare() throws IOException {
+        String policy = Fixtures.read(fixture);
+        StringBuilder builder = new StringBuilder(policy);
+        while ((pageCount = pageCount(builder.toString())) < pages) {
+            builder.append('\n').append(policy);
+        }
+        content = builder.toString();
+    }
+
+    @Benchmark
+    public byte[] exportToPdf(PageCounter counter) {
+        counter.pages += pageCount;
+        return pdfExportService.exportToPdf("Privacy Policy", content, "Example Store");
+    }
+
+    @Benchmark
+    public void exportToStream(PageCounter counter) {
+        counter.pages += pageCount;
+        pdfExportService.exportToPdf("Privacy Policy", content, "Example Store", LocalDate.now(),
+                OutputStream.nullOutputStream());
+    }
+
+    private int pageCount(String markdown) throws IOException {
+        try (PdfReader reader = new PdfReader(pdfExportService.exportToPdf("Privacy Policy", markdown, "Example Store"))) {
+            return reader.getNumberOfPages();
+        }
+    }
+
+    /** Pages rendered, reported by JMH as a rate next to the operations. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class PageCounter {
+        public long pages;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            pages = 0;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.hopl.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate limiter cost per request with four threads, for anonymous clients drawn from
+ * 100,000 distinct addresses and for a single address all threads contend on. With
+ * {@code perHour} 5 nearly every request is rejected; with 1,000,000 nearly all pass.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private static final int KEYS = 100_000;
+
+    @Param({"5", "1000000"})
+    public int perHour;
+
+    private RateLimiter rateLimiter;
+    private String[] clients;
+
+    @Setup
+    public void prepare() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("hopl.rate-limit.scan.default", String.valueOf(perHour));
+        rateLimiter = new RateLimiter(environment, true, KEYS, new SimpleMeterRegistry());
+        clients = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            clients[i] = "ip:10." + (i >> 16) + "." + ((i >> 8) & 0xff) + "." + (i & 0xff);
+        }
+        for (String client : clients) {
+            rateLimiter.tryAcquire(RateLimiter.Endpoint.SCAN, null, client, 1);
+        }
+    }
+
+    @Benchmark
+    public RateLimiter.Decision distinctClients() {
+        String client = clients[ThreadLocalRandom.current().nextInt(KEYS)];
+        return rateLimiter.tryAcquire(RateLimiter.Endpoint.SCAN, null, client, 1);
+    }
+
+    @Benchmark
+    public RateLimiter.Decision singleClient() {
+        return rateLimiter.tryAcquire(RateLimiter.Endpoint.SCAN, null, clients[0], 1);
+    }
+}
@@ -0,0 +1,55 @@
+package com.hopl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hopl.dto.scan.ScanResponseDto;
+import com.hopl.model.ScanResult;
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON round trip of a stored scan: serializing an analysis for {@code scan_results}
+ * and building the API response back from the stored row.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ScanResponseBenchmark {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ScannerService scannerService;
+    private ComplianceAnalyzer.AnalysisResult analysis;
+    private ScanResult result;
+
+    @Setup
+    public void prepare() throws JsonProcessingException {
+        analysis = new ComplianceAnalyzer().analyze(
+                Jsoup.parse(Fixtures.read("store-medium.html"), Fixtures.URL), Fixtures.URL);
+        result = new ScanResult();
+        result.setId(1L);
+        result.setUrl(Fixtures.URL);
+        result.setScore(analysis.getScore());
+        result.setIssuesJson(objectMapper.writeValueAsString(analysis.getIssues()));
+        result.setDetailsJson(objectMapper.writeValueAsString(analysis.getDetails()));
+        result.setJurisdiction(analysis.getJurisdiction());
+        // toResponse only needs the mapper
+        scannerService = new ScannerService(null, null, objectMapper, null, null, null);
+    }
+
+    @Benchmark
+    public void serializeAnalysis(Blackhole blackhole) throws JsonProcessingException {
+        blackhole.consume(objectMapper.writeValueAsString(analysis.getIssues()));
+        blackhole.consume(objectMapper.writeValueAsString(analysis.getDetails()));
+    }
+
+    @Benchmark
+    public ScanResponseDto toResponse() {
+        return scannerService.toResponse(result);
+    }
+}
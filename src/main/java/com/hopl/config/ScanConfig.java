@@ -0,0 +1,25 @@
+package com.hopl.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+
+@Configuration
+public class ScanConfig {
+
+    /** Shared pool for outbound page fetches and analysis off the request thread. */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService scanExecutor(WorkerThreads workerThreads,
+                                        @Value("${hopl.scan.batch.threads:32}") int threads) {
+        return workerThreads.ioExecutor("scan-", threads);
+    }
+
+    /** Pool for policy link checks; separate so crawls started from scan threads cannot starve them. */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService crawlExecutor(WorkerThreads workerThreads,
+                                         @Value("${hopl.scan.crawl.threads:16}") int threads) {
+        return workerThreads.ioExecutor("crawl-", threads);
+    }
+}
@@ -0,0 +1,58 @@
+package com.hopl.config;
+
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Threads for the app's own executors, following Spring Boot's
+ * {@code spring.threads.virtual.enabled} like Tomcat and the MVC async executor do.
+ * With virtual threads, work that mostly waits on the network gets a thread per task
+ * instead of queueing for a fixed pool, so the pool sizes configured for platform
+ * threads no longer cap how many pages are fetched at once.
+ */
+@Component
+public class WorkerThreads {
+
+    private final boolean virtual;
+
+    public WorkerThreads(Environment environment) {
+        this.virtual = Threading.VIRTUAL.isActive(environment);
+    }
+
+    /**
+     * @return true if virtual threads are enabled
+     */
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    /**
+     * Creates threads named with a prefix, virtual or platform depending on the mode.
+     *
+     * @param prefix thread name prefix, e.g. {@code scan-}
+     * @return the thread factory
+     */
+    public ThreadFactory factory(String prefix) {
+        return virtual ? Thread.ofVirtual().name(prefix, 1).factory() : new CustomizableThreadFactory(prefix);
+    }
+
+    /**
+     * Creates an executor for I/O-bound tasks: a virtual thread per task, or a fixed pool
+     * of platform threads.
+     *
+     * @param prefix thread name prefix
+     * @param platformThreads pool size when virtual threads are disabled
+     * @return the executor
+     */
+    public ExecutorService ioExecutor(String prefix, int platformThreads) {
+        return virtual
+                ? Executors.newThreadPerTaskExecutor(factory(prefix))
+                : Executors.newFixedThreadPool(platformThreads, factory(prefix));
+    }
+}
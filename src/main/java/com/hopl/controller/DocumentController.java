@@ -1,38 +1,62 @@
 package com.hopl.controller;
 
+import com.hopl.dto.document.GenerateBundleRequestDto;
 import com.hopl.dto.document.GenerateDocRequestDto;
 import com.hopl.dto.document.GenerateDocResponseDto;
+import com.hopl.dto.document.GenerationJobDto;
+import com.hopl.exception.ApiException;
 import com.hopl.model.enums.DocumentType;
-import com.hopl.security.JwtTokenProvider;
+import com.hopl.security.RateLimitGuard;
 import com.hopl.service.CreditService;
+import com.hopl.service.DocumentBundleService;
 import com.hopl.service.DocumentGeneratorService;
-import com.hopl.service.PdfExportService;
+import com.hopl.service.GenerationJobService;
+import com.hopl.service.PdfArtifactCache;
+import com.hopl.service.RateLimiter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
 import org.springframework.http.*;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/documents")
 public class DocumentController {
 
     private final DocumentGeneratorService documentService;
-    private final PdfExportService pdfExportService;
+    private final GenerationJobService generationJobService;
+    private final DocumentBundleService bundleService;
+
+    private final PdfArtifactCache pdfArtifactCache;
     private final CreditService creditService;
-    private final JwtTokenProvider tokenProvider;
+    private final RateLimitGuard rateLimitGuard;
 
     public DocumentController(DocumentGeneratorService documentService,
-                              PdfExportService pdfExportService,
+                              GenerationJobService generationJobService,
+                              DocumentBundleService bundleService,
+                              PdfArtifactCache pdfArtifactCache,
                               CreditService creditService,
-                              JwtTokenProvider tokenProvider) {
+                              RateLimitGuard rateLimitGuard) {
         this.documentService = documentService;
-        this.pdfExportService = pdfExportService;
+        this.generationJobService = generationJobService;
+        this.bundleService = bundleService;
+        this.pdfArtifactCache = pdfArtifactCache;
         this.creditService = creditService;
-        this.tokenProvider = tokenProvider;
+        this.rateLimitGuard = rateLimitGuard;
     }
 
     /**
@@ -49,36 +73,155 @@ public class DocumentController {
     }
 
     /**
-     * Generates a new document using AI.
+     * Generates a new document using AI. The request goes through the generation queue
+     * and the response is sent once its job completes, without holding a request thread.
+     * Requests answered from an earlier identical generation are marked {@code cached}
+     * and do not consume a credit.
      *
      * @param request generation parameters
-     * @param httpRequest for extracting user ID from JWT
-     * @return generated document
+     * @param userId the authenticated user's ID
+     * @return generated document; 402 without credits, 429 with the queue depth when the queue is full
      */
     @PostMapping("/generate")
-    public ResponseEntity<?> generate(@Valid @RequestBody GenerateDocRequestDto request,
-                                      HttpServletRequest httpRequest) {
-        Long userId = extractUserId(httpRequest);
+    public CompletableFuture<ResponseEntity<GenerateDocResponseDto>> generate(@Valid @RequestBody GenerateDocRequestDto request,
+                                                                              @AuthenticationPrincipal Long userId) {
+        requireCredits(userId);
+        return generationJobService.submitAndAwait(request, userId).thenApply(ResponseEntity::ok);
+    }
 
-        if (!creditService.canGenerate(userId)) {
-            return ResponseEntity.status(HttpStatus.PAYMENT_REQUIRED)
-                    .body(Map.of("error", "No credits available. Please purchase a plan to generate documents."));
+    /**
+     * Queues a document for generation in the background. Jobs of subscription plans
+     * run before those of free accounts.
+     *
+     * @param request generation parameters
+     * @param userId the authenticated user's ID
+     * @return the pending job, to be polled; 402 without credits, 429 with the queue depth when the queue is full
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<GenerationJobDto> submitJob(@Valid @RequestBody GenerateDocRequestDto request,
+                                                      @AuthenticationPrincipal Long userId) {
+        requireCredits(userId);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(generationJobService.submit(request, userId));
+    }
+
+    /**
+     * Returns the status of a generation job, including the document once completed.
+     *
+     * @param id job ID
+     * @param userId the authenticated user's ID
+     * @return the job or 404
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<GenerationJobDto> getJob(@PathVariable Long id, @AuthenticationPrincipal Long userId) {
+        return generationJobService.getJob(id, userId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Generates a new document using AI, streaming it as server-sent events while it is
+     * written. Each {@code chunk} event carries the next piece of Markdown; the stream ends
+     * with a {@code done} event carrying the saved document, or an {@code error} event.
+     * A credit is reserved before generation starts and refunded if it fails or the
+     * document is served from cache.
+     *
+     * @param request generation parameters
+     * @param userId the authenticated user's ID
+     * @return event stream, or 402 if the user has no credits
+     */
+    @PostMapping(value = "/generate/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> generateStream(@Valid @RequestBody GenerateDocRequestDto request,
+                                                     @AuthenticationPrincipal Long userId) {
+        String reference = "stream:" + UUID.randomUUID();
+        if (!creditService.reserveCredits(userId, 1, reference)) {
+            throw new ApiException("No credits available. Please purchase a plan to generate documents.",
+                    HttpStatus.PAYMENT_REQUIRED);
         }
 
-        GenerateDocResponseDto doc = documentService.generate(request, userId);
-        creditService.consumeCredit(userId);
-        return ResponseEntity.ok(doc);
+        SseEmitter emitter = new SseEmitter();
+        CompletableFuture<GenerateDocResponseDto> generation;
+        try {
+            generation = documentService.generateStream(request, userId, chunk -> send(emitter, "chunk", Map.of("text", chunk)));
+        } catch (RuntimeException e) {
+            creditService.refundCredits(userId, 1, reference);
+            throw e;
+        }
+        // A client that goes away stops the generation; the credit is refunded below
+        emitter.onTimeout(() -> generation.cancel(false));
+        emitter.onError(e -> generation.cancel(false));
+        generation.whenComplete((doc, error) -> {
+            if (error != null || doc.isCached()) {
+                creditService.refundCredits(userId, 1, reference);
+            }
+            if (generation.isCancelled()) {
+                emitter.complete();
+                return;
+            }
+            if (error != null) {
+                String message = error.getCause() instanceof ApiException api
+                        ? api.getMessage() : "Failed to generate document. Please try again.";
+                try {
+                    emitter.send(SseEmitter.event().name("error").data(Map.of("error", message)));
+                    emitter.complete();
+                } catch (IOException | IllegalStateException e) {
+                    emitter.completeWithError(e);
+                }
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event().name("done").data(doc));
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Generates several document types for the same business concurrently, streaming
+     * server-sent events as they finish. Each {@code document} event carries the
+     * document type with either the saved document or an error; the stream ends with a
+     * {@code done} event summarizing the bundle. Credits for every requested type are
+     * reserved up front and refunded for documents that fail or are served from cache.
+     * Each type counts as one generation against the rate limit.
+     *
+     * @param request document types and shared business details
+     * @param userId the authenticated user's ID
+     * @return event stream; 402 if the credits do not cover the bundle, 409 if one is already running
+     */
+    @PostMapping(value = "/bundle", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> generateBundle(@Valid @RequestBody GenerateBundleRequestDto request,
+                                                     @AuthenticationPrincipal Long userId) {
+        List<DocumentType> types = bundleService.prepare(request.getDocumentTypes());
+        rateLimitGuard.check(RateLimiter.Endpoint.GENERATION, types.size());
+
+        SseEmitter emitter = new SseEmitter();
+        CompletableFuture<DocumentBundleService.Summary> bundle = bundleService.generateAll(types, request, userId,
+                item -> send(emitter, "document", item));
+        emitter.onTimeout(() -> bundle.cancel(false));
+        emitter.onError(e -> bundle.cancel(false));
+        bundle.whenComplete((summary, error) -> {
+            try {
+                if (summary != null) {
+                    emitter.send(SseEmitter.event().name("done").data(summary));
+                }
+                emitter.complete();
+            } catch (IOException | IllegalStateException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok(emitter);
     }
 
     /**
      * Lists all documents for the authenticated user.
      *
-     * @param httpRequest for extracting user ID
+     * @param userId the authenticated user's ID
      * @return list of user's documents
      */
     @GetMapping
-    public ResponseEntity<List<GenerateDocResponseDto>> listDocuments(HttpServletRequest httpRequest) {
-        Long userId = extractUserId(httpRequest);
+    public ResponseEntity<List<GenerateDocResponseDto>> listDocuments(@AuthenticationPrincipal Long userId) {
         return ResponseEntity.ok(documentService.getUserDocuments(userId));
     }
 
@@ -86,46 +229,75 @@ public class DocumentController {
      * Gets a single document by ID.
      *
      * @param id document ID
-     * @param httpRequest for extracting user ID
+     * @param userId the authenticated user's ID
      * @return the document or 404
      */
     @GetMapping("/{id}")
     public ResponseEntity<GenerateDocResponseDto> getDocument(@PathVariable Long id,
-                                                               HttpServletRequest httpRequest) {
-        Long userId = extractUserId(httpRequest);
+                                                               @AuthenticationPrincipal Long userId) {
         return documentService.getDocument(id, userId)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     /**
-     * Exports a document as PDF.
+     * Exports a document as PDF. The PDF is rendered once and kept on disk; downloads are
+     * streamed from the file, which is kept open so eviction cannot remove it mid-response.
+     * The entity tag covers everything the PDF is rendered from, so a matching
+     * {@code If-None-Match} is answered with 304 without touching the file.
      *
      * @param id document ID
-     * @param httpRequest for extracting user ID
-     * @return PDF file bytes
+     * @param userId the authenticated user's ID
+     * @param httpRequest for conditional request headers
+     * @return PDF file, 304 or 404
      */
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> exportPdf(@PathVariable Long id, HttpServletRequest httpRequest) {
-        Long userId = extractUserId(httpRequest);
+    public ResponseEntity<Resource> exportPdf(@PathVariable Long id, @AuthenticationPrincipal Long userId,
+                                              HttpServletRequest httpRequest) {
         return documentService.getDocument(id, userId)
                 .map(doc -> {
-                    byte[] pdf = pdfExportService.exportToPdf(doc.getTitle(), doc.getContent(), doc.getBusinessName());
+                    String etag = pdfArtifactCache.etag(doc);
                     HttpHeaders headers = new HttpHeaders();
+                    headers.setETag(etag);
+                    headers.setCacheControl(CacheControl.noCache().cachePrivate());
+                    if (new ServletWebRequest(httpRequest).checkNotModified(etag)) {
+                        return new ResponseEntity<Resource>(headers, HttpStatus.NOT_MODIFIED);
+                    }
+                    PdfArtifactCache.Artifact pdf = pdfArtifactCache.open(doc);
+                    // Closed when the body has been written; this also covers responses that fail before it is read
+                    RequestContextHolder.currentRequestAttributes().registerDestructionCallback(
+                            "pdfArtifact", () -> closeQuietly(pdf), RequestAttributes.SCOPE_REQUEST);
                     headers.setContentType(MediaType.APPLICATION_PDF);
+                    headers.setContentLength(pdf.size());
                     headers.setContentDisposition(ContentDisposition.attachment()
                             .filename(doc.getTitle().replaceAll("[^a-zA-Z0-9.-]", "_") + ".pdf")
                             .build());
-                    return new ResponseEntity<>(pdf, headers, HttpStatus.OK);
+                    return new ResponseEntity<Resource>(new InputStreamResource(pdf.stream()), headers, HttpStatus.OK);
                 })
                 .orElse(ResponseEntity.notFound().build());
     }
 
-    private Long extractUserId(HttpServletRequest request) {
-        String header = request.getHeader("Authorization");
-        if (header != null && header.startsWith("Bearer ")) {
-            return tokenProvider.getUserIdFromToken(header.substring(7));
+    private static void closeQuietly(PdfArtifactCache.Artifact pdf) {
+        try {
+            pdf.close();
+        } catch (IOException e) {
+            // Only the read channel failed to close; the cache entry is released regardless
+        }
+    }
+
+    private void requireCredits(Long userId) {
+        if (!creditService.canGenerate(userId)) {
+            throw new ApiException("No credits available. Please purchase a plan to generate documents.",
+                    HttpStatus.PAYMENT_REQUIRED);
+        }
+    }
+
+    /** Sends an event, aborting the generation if the client has gone away. */
+    private static void send(SseEmitter emitter, String name, Object data) {
+        try {
+            emitter.send(SseEmitter.event().name(name).data(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        throw new RuntimeException("Authentication required");
     }
 }
@@ -1,17 +1,16 @@
 package com.hopl.controller;
 
 import com.hopl.dto.payment.CheckoutRequest;
-import com.hopl.security.JwtTokenProvider;
 import com.hopl.service.PaymentService;
 import com.stripe.model.Event;
 import com.stripe.model.checkout.Session;
 import com.stripe.net.Webhook;
-import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -22,27 +21,24 @@ public class PaymentController {
 
     private static final Logger log = LoggerFactory.getLogger(PaymentController.class);
     private final PaymentService paymentService;
-    private final JwtTokenProvider tokenProvider;
 
     @Value("${hopl.stripe.webhook-secret:}")
     private String webhookSecret;
 
-    public PaymentController(PaymentService paymentService, JwtTokenProvider tokenProvider) {
+    public PaymentController(PaymentService paymentService) {
         this.paymentService = paymentService;
-        this.tokenProvider = tokenProvider;
     }
 
     /**
      * Creates a Stripe checkout session for the specified plan.
      *
      * @param request checkout details
-     * @param httpRequest for extracting user ID
+     * @param userId the authenticated user's ID
      * @return checkout URL
      */
     @PostMapping("/checkout")
     public ResponseEntity<Map<String, String>> createCheckout(@Valid @RequestBody CheckoutRequest request,
-                                                               HttpServletRequest httpRequest) {
-        Long userId = extractUserId(httpRequest);
+                                                               @AuthenticationPrincipal Long userId) {
         String successUrl = request.getSuccessUrl() != null ? request.getSuccessUrl() : "http://localhost:8080/dashboard";
         String cancelUrl = request.getCancelUrl() != null ? request.getCancelUrl() : "http://localhost:8080/pricing";
 
@@ -84,12 +80,4 @@ public class PaymentController {
             return ResponseEntity.badRequest().body("Webhook error");
         }
     }
-
-    private Long extractUserId(HttpServletRequest request) {
-        String header = request.getHeader("Authorization");
-        if (header != null && header.startsWith("Bearer ")) {
-            return tokenProvider.getUserIdFromToken(header.substring(7));
-        }
-        throw new RuntimeException("Authentication required");
-    }
 }
@@ -1,31 +1,128 @@
 package com.hopl.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hopl.dto.scan.BatchScanRequestDto;
+import com.hopl.dto.scan.ScanJobDto;
 import com.hopl.dto.scan.ScanRequestDto;
 import com.hopl.dto.scan.ScanResponseDto;
+import com.hopl.security.RateLimitGuard;
+import com.hopl.service.BatchScanService;
+import com.hopl.service.RateLimiter;
+import com.hopl.service.ScanJobService;
 import com.hopl.service.ScannerService;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/scan")
 public class ScanController {
 
     private final ScannerService scannerService;
+    private final BatchScanService batchScanService;
+    private final ScanJobService scanJobService;
+    private final ObjectMapper objectMapper;
+    private final RateLimitGuard rateLimitGuard;
+    private final int crawlMaxLinks;
 
-    public ScanController(ScannerService scannerService) {
+    public ScanController(ScannerService scannerService,
+                          BatchScanService batchScanService,
+                          ScanJobService scanJobService,
+                          ObjectMapper objectMapper,
+                          RateLimitGuard rateLimitGuard,
+                          @Value("${hopl.scan.crawl.max-links:20}") int crawlMaxLinks) {
         this.scannerService = scannerService;
+        this.batchScanService = batchScanService;
+        this.scanJobService = scanJobService;
+        this.objectMapper = objectMapper;
+        this.rateLimitGuard = rateLimitGuard;
+        this.crawlMaxLinks = crawlMaxLinks;
     }
 
     /**
      * Scans a website URL for compliance issues. Public endpoint - no auth required.
+     * A crawl counts against the rate limit as the page plus every link it may check.
      *
-     * @param request contains the URL to scan
+     * @param request contains the URL to scan and whether to crawl its policy links
      * @return compliance scan results with score and issues
      */
     @PostMapping
     public ResponseEntity<ScanResponseDto> scan(@Valid @RequestBody ScanRequestDto request) {
-        ScanResponseDto result = scannerService.scan(request.getUrl(), null);
+        rateLimitGuard.check(RateLimiter.Endpoint.SCAN, request.isCrawl() ? 1 + crawlMaxLinks : 1);
+        ScanResponseDto result = scannerService.scan(request.getUrl(), null, request.isCrawl());
         return ResponseEntity.ok(result);
     }
+
+    /**
+     * Scans a list of URLs in parallel. Results are streamed as newline-delimited JSON,
+     * one line per URL, in completion order. Each URL counts as one scan against the rate limit.
+     *
+     * @param request contains the URLs to scan
+     * @param userId the authenticated user's ID
+     * @return stream of per-URL results
+     */
+    @PostMapping(value = "/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> scanBatch(@Valid @RequestBody BatchScanRequestDto request,
+                                                           @AuthenticationPrincipal Long userId) {
+        List<String> urls = batchScanService.prepare(request.getUrls());
+        rateLimitGuard.check(RateLimiter.Endpoint.SCAN, urls.size());
+        StreamingResponseBody body = out -> batchScanService.scanAll(urls, userId, item -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(item));
+                out.write('\n');
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    /**
+     * Submits a scan to run in the background. Public endpoint - no auth required.
+     *
+     * @param request contains the URL to scan
+     * @return the pending job, to be polled or subscribed to
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ScanJobDto> submitJob(@Valid @RequestBody ScanRequestDto request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(scanJobService.submit(request.getUrl(), null));
+    }
+
+    /**
+     * Returns the status of a scan job, including the result once completed.
+     *
+     * @param id job ID
+     * @return the job or 404
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ScanJobDto> getJob(@PathVariable Long id) {
+        return scanJobService.getJob(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Streams status changes of a scan job as server-sent events. The stream ends
+     * with a {@code completed} or {@code failed} event carrying the final job.
+     *
+     * @param id job ID
+     * @return event stream or 404
+     */
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> jobEvents(@PathVariable Long id) {
+        return scanJobService.subscribe(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
 }
@@ -1,10 +1,9 @@
 package com.hopl.controller;
 
 import com.hopl.model.User;
-import com.hopl.security.JwtTokenProvider;
 import com.hopl.service.UserService;
-import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
@@ -14,22 +13,19 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
-    private final JwtTokenProvider tokenProvider;
 
-    public UserController(UserService userService, JwtTokenProvider tokenProvider) {
+    public UserController(UserService userService) {
         this.userService = userService;
-        this.tokenProvider = tokenProvider;
     }
 
     /**
      * Returns the authenticated user's profile.
      *
-     * @param request HTTP request with JWT
+     * @param userId the authenticated user's ID
      * @return user profile data
      */
     @GetMapping("/me")
-    public ResponseEntity<Map<String, Object>> getProfile(HttpServletRequest request) {
-        Long userId = extractUserId(request);
+    public ResponseEntity<Map<String, Object>> getProfile(@AuthenticationPrincipal Long userId) {
         return userService.findById(userId)
                 .map(user -> ResponseEntity.ok(toProfileMap(user)))
                 .orElse(ResponseEntity.notFound().build());
@@ -45,12 +41,4 @@ public class UserController {
                 "createdAt", user.getCreatedAt().toString()
         );
     }
-
-    private Long extractUserId(HttpServletRequest request) {
-        String header = request.getHeader("Authorization");
-        if (header != null && header.startsWith("Bearer ")) {
-            return tokenProvider.getUserIdFromToken(header.substring(7));
-        }
-        throw new RuntimeException("Authentication required");
-    }
 }
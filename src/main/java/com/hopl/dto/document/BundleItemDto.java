@@ -0,0 +1,33 @@
+package com.hopl.dto.document;
+
+public class BundleItemDto {
+    private String documentType;
+    private String status;
+    private GenerateDocResponseDto document;
+    private String error;
+
+    public static BundleItemDto completed(String documentType, GenerateDocResponseDto document) {
+        BundleItemDto item = new BundleItemDto();
+        item.setDocumentType(documentType);
+        item.setStatus("COMPLETED");
+        item.setDocument(document);
+        return item;
+    }
+
+    public static BundleItemDto failed(String documentType, String error) {
+        BundleItemDto item = new BundleItemDto();
+        item.setDocumentType(documentType);
+        item.setStatus("FAILED");
+        item.setError(error);
+        return item;
+    }
+
+    public String getDocumentType() { return documentType; }
+    public void setDocumentType(String documentType) { this.documentType = documentType; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public GenerateDocResponseDto getDocument() { return document; }
+    public void setDocument(GenerateDocResponseDto document) { this.document = document; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
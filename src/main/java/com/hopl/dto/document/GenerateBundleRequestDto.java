@@ -0,0 +1,36 @@
+package com.hopl.dto.document;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class GenerateBundleRequestDto {
+    @NotEmpty(message = "At least one document type is required")
+    private List<@NotBlank String> documentTypes;
+    @NotBlank
+    private String businessName;
+    private String businessType;
+    private String websiteUrl;
+    private String jurisdiction;
+    private String language;
+    private Long scanId;
+    private String additionalInfo;
+
+    public List<String> getDocumentTypes() { return documentTypes; }
+    public void setDocumentTypes(List<String> documentTypes) { this.documentTypes = documentTypes; }
+    public String getBusinessName() { return businessName; }
+    public void setBusinessName(String businessName) { this.businessName = businessName; }
+    public String getBusinessType() { return businessType; }
+    public void setBusinessType(String businessType) { this.businessType = businessType; }
+    public String getWebsiteUrl() { return websiteUrl; }
+    public void setWebsiteUrl(String websiteUrl) { this.websiteUrl = websiteUrl; }
+    public String getJurisdiction() { return jurisdiction; }
+    public void setJurisdiction(String jurisdiction) { this.jurisdiction = jurisdiction; }
+    public String getLanguage() { return language; }
+    public void setLanguage(String language) { this.language = language; }
+    public Long getScanId() { return scanId; }
+    public void setScanId(Long scanId) { this.scanId = scanId; }
+    public String getAdditionalInfo() { return additionalInfo; }
+    public void setAdditionalInfo(String additionalInfo) { this.additionalInfo = additionalInfo; }
+}
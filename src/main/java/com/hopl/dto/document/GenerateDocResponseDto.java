@@ -10,6 +10,8 @@ public class GenerateDocResponseDto {
     private String businessName;
     private String jurisdiction;
     private LocalDateTime createdAt;
+    private boolean cached;
+    private Long promptTokens;
     
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -25,4 +27,8 @@ public class GenerateDocResponseDto {
     public void setJurisdiction(String jurisdiction) { this.jurisdiction = jurisdiction; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public boolean isCached() { return cached; }
+    public void setCached(boolean cached) { this.cached = cached; }
+    public Long getPromptTokens() { return promptTokens; }
+    public void setPromptTokens(Long promptTokens) { this.promptTokens = promptTokens; }
 }
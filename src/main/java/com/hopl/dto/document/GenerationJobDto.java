@@ -0,0 +1,22 @@
+package com.hopl.dto.document;
+
+import java.time.LocalDateTime;
+
+public class GenerationJobDto {
+    private Long id;
+    private String status;
+    private GenerateDocResponseDto document;
+    private String error;
+    private LocalDateTime createdAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public GenerateDocResponseDto getDocument() { return document; }
+    public void setDocument(GenerateDocResponseDto document) { this.document = document; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
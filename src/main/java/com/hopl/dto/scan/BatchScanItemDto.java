@@ -0,0 +1,33 @@
+package com.hopl.dto.scan;
+
+public class BatchScanItemDto {
+    private String url;
+    private String status;
+    private ScanResponseDto result;
+    private String error;
+
+    public static BatchScanItemDto completed(String url, ScanResponseDto result) {
+        BatchScanItemDto item = new BatchScanItemDto();
+        item.setUrl(url);
+        item.setStatus("COMPLETED");
+        item.setResult(result);
+        return item;
+    }
+
+    public static BatchScanItemDto failed(String url, String error) {
+        BatchScanItemDto item = new BatchScanItemDto();
+        item.setUrl(url);
+        item.setStatus("FAILED");
+        item.setError(error);
+        return item;
+    }
+
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public ScanResponseDto getResult() { return result; }
+    public void setResult(ScanResponseDto result) { this.result = result; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+}
@@ -0,0 +1,14 @@
+package com.hopl.dto.scan;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class BatchScanRequestDto {
+    @NotEmpty(message = "At least one URL is required")
+    private List<@NotBlank String> urls;
+
+    public List<String> getUrls() { return urls; }
+    public void setUrls(List<String> urls) { this.urls = urls; }
+}
@@ -0,0 +1,25 @@
+package com.hopl.dto.scan;
+
+import java.time.LocalDateTime;
+
+public class ScanJobDto {
+    private Long id;
+    private String url;
+    private String status;
+    private ScanResponseDto result;
+    private String error;
+    private LocalDateTime createdAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    public ScanResponseDto getResult() { return result; }
+    public void setResult(ScanResponseDto result) { this.result = result; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
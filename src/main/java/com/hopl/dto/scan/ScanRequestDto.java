@@ -5,7 +5,12 @@ import jakarta.validation.constraints.NotBlank;
 public class ScanRequestDto {
     @NotBlank(message = "URL is required")
     private String url;
+
+    /** Also follow and check the page's privacy, terms and cookie policy links. */
+    private boolean crawl;
     
     public String getUrl() { return url; }
     public void setUrl(String url) { this.url = url; }
+    public boolean isCrawl() { return crawl; }
+    public void setCrawl(boolean crawl) { this.crawl = crawl; }
 }
@@ -0,0 +1,18 @@
+package com.hopl.exception;
+
+import org.springframework.http.HttpStatus;
+
+/** Thrown when a bounded work queue cannot accept more requests. */
+public class QueueFullException extends ApiException {
+
+    private final int queueDepth;
+
+    public QueueFullException(String message, int queueDepth) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS);
+        this.queueDepth = queueDepth;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+}
@@ -0,0 +1,18 @@
+package com.hopl.exception;
+
+import org.springframework.http.HttpStatus;
+
+/** Thrown when a client has used up its request allowance. */
+public class RateLimitedException extends ApiException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitedException(String message, long retryAfterSeconds) {
+        super(message, HttpStatus.TOO_MANY_REQUESTS);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
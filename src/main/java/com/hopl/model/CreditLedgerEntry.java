@@ -0,0 +1,47 @@
+package com.hopl.model;
+
+import com.hopl.model.enums.CreditLedgerReason;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "credit_ledger")
+public class CreditLedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false, updatable = false)
+    private Long userId;
+
+    @Column(nullable = false, updatable = false)
+    private int delta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, updatable = false)
+    private CreditLedgerReason reason;
+
+    @Column(length = 100, updatable = false)
+    private String reference;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public CreditLedgerEntry() {
+    }
+
+    public CreditLedgerEntry(Long userId, int delta, CreditLedgerReason reason, String reference) {
+        this.userId = userId;
+        this.delta = delta;
+        this.reason = reason;
+        this.reference = reference;
+    }
+
+    public Long getId() { return id; }
+    public Long getUserId() { return userId; }
+    public int getDelta() { return delta; }
+    public CreditLedgerReason getReason() { return reason; }
+    public String getReference() { return reference; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,19 @@
+package com.hopl.model;
+
+import com.hopl.model.enums.PlanType;
+
+/**
+ * What a user may generate: their plan and remaining credits.
+ *
+ * @param planType the user's plan
+ * @param credits remaining credits; not consumed by unlimited plans
+ */
+public record Entitlement(PlanType planType, int credits) {
+
+    /** Entitlement of an unknown user. */
+    public static final Entitlement NONE = new Entitlement(PlanType.FREE, 0);
+
+    public boolean canGenerate() {
+        return planType.isUnlimited() || credits > 0;
+    }
+}
@@ -37,6 +37,15 @@ public class GeneratedDocument {
     @Column(name = "scan_id")
     private Long scanId;
 
+    @Column(name = "prompt_hash", length = 64)
+    private String promptHash;
+
+    @Column(nullable = false)
+    private boolean cached;
+
+    @Column(name = "prompt_tokens")
+    private Long promptTokens;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
@@ -60,6 +69,12 @@ public class GeneratedDocument {
     public void setUserId(Long userId) { this.userId = userId; }
     public Long getScanId() { return scanId; }
     public void setScanId(Long scanId) { this.scanId = scanId; }
+    public String getPromptHash() { return promptHash; }
+    public void setPromptHash(String promptHash) { this.promptHash = promptHash; }
+    public boolean isCached() { return cached; }
+    public void setCached(boolean cached) { this.cached = cached; }
+    public Long getPromptTokens() { return promptTokens; }
+    public void setPromptTokens(Long promptTokens) { this.promptTokens = promptTokens; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
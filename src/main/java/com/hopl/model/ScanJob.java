@@ -0,0 +1,53 @@
+package com.hopl.model;
+
+import com.hopl.model.enums.ScanJobStatus;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "scan_jobs")
+public class ScanJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 2048)
+    private String url;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ScanJobStatus status = ScanJobStatus.PENDING;
+
+    @Column(name = "scan_result_id")
+    private Long scanResultId;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public String getUrl() { return url; }
+    public void setUrl(String url) { this.url = url; }
+    public ScanJobStatus getStatus() { return status; }
+    public void setStatus(ScanJobStatus status) { this.status = status; }
+    public Long getScanResultId() { return scanResultId; }
+    public void setScanResultId(Long scanResultId) { this.scanResultId = scanResultId; }
+    public String getError() { return error; }
+    public void setError(String error) { this.error = error; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
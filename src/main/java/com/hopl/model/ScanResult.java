@@ -28,9 +28,24 @@ public class ScanResult {
     @Column(name = "user_id")
     private Long userId;
 
+    @Column(length = 512)
+    private String etag;
+
+    @Column(name = "last_modified", length = 64)
+    private String lastModified;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(nullable = false)
+    private boolean crawled;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    @Column(name = "checked_at", nullable = false)
+    private LocalDateTime checkedAt = createdAt;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public String getUrl() { return url; }
@@ -45,6 +60,16 @@ public class ScanResult {
     public void setJurisdiction(String jurisdiction) { this.jurisdiction = jurisdiction; }
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
+    public String getEtag() { return etag; }
+    public void setEtag(String etag) { this.etag = etag; }
+    public String getLastModified() { return lastModified; }
+    public void setLastModified(String lastModified) { this.lastModified = lastModified; }
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+    public boolean isCrawled() { return crawled; }
+    public void setCrawled(boolean crawled) { this.crawled = crawled; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    public LocalDateTime getCheckedAt() { return checkedAt; }
+    public void setCheckedAt(LocalDateTime checkedAt) { this.checkedAt = checkedAt; }
 }
@@ -12,7 +12,8 @@ public enum ComplianceIssue {
     NO_DATA_COLLECTION_DISCLOSURE("No Data Collection Disclosure", "Forms collecting user data were found but no disclosure about what data is collected.", 10),
     NO_OPT_OUT("No Opt-Out Mechanism", "No unsubscribe link or opt-out mechanism was found for marketing communications.", 7),
     MISSING_COOKIE_POLICY("Missing Cookie Policy", "Cookies are being set but no separate cookie policy was found.", 8),
-    NO_ACCESSIBILITY_BASICS("Missing Basic Accessibility", "Basic accessibility features (alt text, ARIA labels) are missing from key elements.", 5);
+    NO_ACCESSIBILITY_BASICS("Missing Basic Accessibility", "Basic accessibility features (alt text, ARIA labels) are missing from key elements.", 5),
+    MISSING_GDPR_RIGHTS("Privacy Policy Missing Data Subject Rights", "The privacy policy does not describe every GDPR data subject right: access, rectification, erasure, restriction, portability, objection and complaint to a supervisory authority.", 8);
 
     private final String title;
     private final String description;
@@ -0,0 +1,10 @@
+package com.hopl.model.enums;
+
+public enum CreditLedgerReason {
+    /** Credits granted by a purchase. */
+    GRANT,
+    /** Credits taken before a document is generated. */
+    RESERVE,
+    /** Reserved credits returned because the document failed or was served from cache. */
+    REFUND
+}
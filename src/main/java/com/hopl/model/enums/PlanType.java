@@ -18,4 +18,13 @@ public enum PlanType {
     public int getDocumentLimit() { return documentLimit; }
 
     public boolean isUnlimited() { return documentLimit == -1; }
+
+    /** Returns the generation queue priority; higher runs first. Subscriptions outrank one-off purchases, which outrank free. */
+    public int getQueuePriority() {
+        return switch (this) {
+            case PRO, AGENCY -> 2;
+            case FREE -> 0;
+            default -> 1;
+        };
+    }
 }
@@ -0,0 +1,10 @@
+package com.hopl.model.enums;
+
+public enum ScanJobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED;
+
+    public boolean isFinished() { return this == COMPLETED || this == FAILED; }
+}
@@ -0,0 +1,13 @@
+package com.hopl.repository;
+
+import com.hopl.model.CreditLedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface CreditLedgerRepository extends JpaRepository<CreditLedgerEntry, Long> {
+
+    /** Net credit movement recorded under a reference; negative while reserved credits are held. */
+    @Query("SELECT COALESCE(SUM(e.delta), 0) FROM CreditLedgerEntry e WHERE e.userId = :userId AND e.reference = :reference")
+    long sumDelta(@Param("userId") Long userId, @Param("reference") String reference);
+}
@@ -2,9 +2,14 @@ package com.hopl.repository;
 
 import com.hopl.model.GeneratedDocument;
 import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface GeneratedDocumentRepository extends JpaRepository<GeneratedDocument, Long> {
     List<GeneratedDocument> findByUserIdOrderByCreatedAtDesc(Long userId);
     List<GeneratedDocument> findByScanId(Long scanId);
+    Optional<GeneratedDocument> findFirstByUserIdAndPromptHashAndCreatedAtAfterOrderByCreatedAtDesc(Long userId, String promptHash, LocalDateTime after);
+    Optional<GeneratedDocument> findFirstByPromptHashAndCachedFalseAndCreatedAtAfterOrderByCreatedAtDesc(String promptHash, LocalDateTime after);
 }
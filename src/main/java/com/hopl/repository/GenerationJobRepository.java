@@ -0,0 +1,11 @@
+package com.hopl.repository;
+
+import com.hopl.model.GenerationJob;
+import com.hopl.model.enums.GenerationJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
+import java.util.List;
+
+public interface GenerationJobRepository extends JpaRepository<GenerationJob, Long> {
+    List<GenerationJob> findByStatusInOrderByIdAsc(Collection<GenerationJobStatus> statuses);
+}
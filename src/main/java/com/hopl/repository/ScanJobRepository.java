@@ -0,0 +1,11 @@
+package com.hopl.repository;
+
+import com.hopl.model.ScanJob;
+import com.hopl.model.enums.ScanJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import java.util.Collection;
+import java.util.List;
+
+public interface ScanJobRepository extends JpaRepository<ScanJob, Long> {
+    List<ScanJob> findByStatusInOrderByIdAsc(Collection<ScanJobStatus> statuses);
+}
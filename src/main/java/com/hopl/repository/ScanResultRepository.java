@@ -8,5 +8,6 @@ import java.util.Optional;
 
 public interface ScanResultRepository extends JpaRepository<ScanResult, Long> {
     List<ScanResult> findByUserIdOrderByCreatedAtDesc(Long userId);
-    Optional<ScanResult> findFirstByUrlAndCreatedAtAfterOrderByCreatedAtDesc(String url, LocalDateTime after);
+    Optional<ScanResult> findFirstByUrlAndCrawledAndCheckedAtAfterOrderByCheckedAtDesc(String url, boolean crawled, LocalDateTime after);
+    Optional<ScanResult> findFirstByUrlAndCrawledOrderByCheckedAtDesc(String url, boolean crawled);
 }
@@ -1,10 +1,42 @@
 package com.hopl.repository;
 
+import com.hopl.model.Entitlement;
 import com.hopl.model.User;
+import com.hopl.model.enums.PlanType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
     boolean existsByEmail(String email);
+
+    /** Plan and credits of a user, without loading the entity. */
+    @Query("SELECT new com.hopl.model.Entitlement(u.planType, u.credits) FROM User u WHERE u.id = :id")
+    Optional<Entitlement> findEntitlement(@Param("id") Long id);
+
+    @Query("SELECT COUNT(u) > 0 FROM User u WHERE u.id = :id AND u.planType IN :plans")
+    boolean existsByIdAndPlanTypeIn(@Param("id") Long id, @Param("plans") Collection<PlanType> plans);
+
+    /**
+     * Deducts credits only if the balance covers them and the plan is metered; returns the
+     * number of rows updated.
+     */
+    @Modifying
+    @Query("UPDATE User u SET u.credits = u.credits - :count "
+            + "WHERE u.id = :id AND u.credits >= :count AND u.planType NOT IN :unlimited")
+    int deductCredits(@Param("id") Long id, @Param("count") int count, @Param("unlimited") Collection<PlanType> unlimited);
+
+    /** Adds credits if the plan is metered; returns the number of rows updated. */
+    @Modifying
+    @Query("UPDATE User u SET u.credits = u.credits + :count WHERE u.id = :id AND u.planType NOT IN :unlimited")
+    int addCredits(@Param("id") Long id, @Param("count") int count, @Param("unlimited") Collection<PlanType> unlimited);
+
+    @Modifying
+    @Query("UPDATE User u SET u.planType = :planType, u.updatedAt = CURRENT_TIMESTAMP WHERE u.id = :id")
+    int updatePlanType(@Param("id") Long id, @Param("planType") PlanType planType);
 }
@@ -1,5 +1,8 @@
 package com.hopl.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
@@ -7,9 +10,18 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Issues and verifies JWTs. Tokens are verified with one shared parser, and verified
+ * tokens are remembered by their SHA-256 hash until they expire, at most
+ * {@code hopl.jwt.cache.max-size} of them, so a client reusing its token is verified once.
+ */
 @Component
 public class JwtTokenProvider {
 
@@ -19,7 +31,12 @@ public class JwtTokenProvider {
     @Value("${hopl.jwt.expiration:86400000}")
     private long expiration;
 
+    @Value("${hopl.jwt.cache.max-size:10000}")
+    private long cacheMaxSize;
+
     private SecretKey key;
+    private JwtParser parser;
+    private Cache<ByteBuffer, VerifiedToken> verified;
 
     @PostConstruct
     public void init() {
@@ -30,6 +47,26 @@ public class JwtTokenProvider {
             keyBytes = padded;
         }
         this.key = Keys.hmacShaKeyFor(keyBytes);
+        this.parser = Jwts.parser().verifyWith(key).build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfter(new Expiry<ByteBuffer, VerifiedToken>() {
+                    @Override
+                    public long expireAfterCreate(ByteBuffer hash, VerifiedToken token, long currentTime) {
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(0, token.expiresAt() - System.currentTimeMillis()));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(ByteBuffer hash, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(ByteBuffer hash, VerifiedToken token, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
     }
 
     /**
@@ -51,33 +88,29 @@ public class JwtTokenProvider {
     }
 
     /**
-     * Extracts user ID from a valid JWT token.
-     *
-     * @param token the JWT token
-     * @return user ID
-     */
-    public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .verifyWith(key)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
-        return Long.parseLong(claims.getSubject());
-    }
-
-    /**
-     * Validates a JWT token.
+     * Verifies a token and returns its user ID. A token verified before is recognized by
+     * its hash without checking the signature again.
      *
      * @param token the JWT token
-     * @return true if valid
+     * @return user ID, or null if the token is invalid or expired
      */
-    public boolean validateToken(String token) {
+    public Long authenticate(String token) {
+        ByteBuffer hash = hash(token);
+        VerifiedToken cached = verified.getIfPresent(hash);
+        if (cached != null && cached.expiresAt() > System.currentTimeMillis()) {
+            return cached.userId();
+        }
+        Claims claims;
         try {
-            Jwts.parser().verifyWith(key).build().parseSignedClaims(token);
-            return true;
+            claims = parser.parseSignedClaims(token).getPayload();
         } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            return null;
+        }
+        Long userId = Long.parseLong(claims.getSubject());
+        if (claims.getExpiration() != null) {
+            verified.put(hash, new VerifiedToken(userId, claims.getExpiration().getTime()));
         }
+        return userId;
     }
 
     public long getExpiration() {
@@ -97,4 +130,15 @@ public class JwtTokenProvider {
         }
         return null;
     }
+
+    private static ByteBuffer hash(String token) {
+        try {
+            return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VerifiedToken(Long userId, long expiresAt) {
+    }
 }
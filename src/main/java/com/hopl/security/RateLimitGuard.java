@@ -0,0 +1,115 @@
+package com.hopl.security;
+
+import com.hopl.exception.ApiException;
+import com.hopl.exception.RateLimitedException;
+import com.hopl.model.enums.PlanType;
+import com.hopl.service.EntitlementCache;
+import com.hopl.service.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.net.Inet6Address;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+
+/**
+ * Charges a request against the {@link RateLimiter}, keyed by user for authenticated
+ * requests and by remote address, or IPv6 /64, otherwise, and reports the client's
+ * allowance in {@code RateLimit-Limit}, {@code RateLimit-Remaining}, {@code RateLimit-Reset}
+ * and {@code RateLimit-Policy} headers. Requests that fan out, such as batch scans, crawls
+ * and bundles, are charged once per URL or document. Behind a proxy, the remote address is
+ * the client's only when {@code server.forward-headers-strategy} is set.
+ */
+@Component
+public class RateLimitGuard {
+
+    private final RateLimiter rateLimiter;
+    private final EntitlementCache entitlementCache;
+
+    public RateLimitGuard(RateLimiter rateLimiter, EntitlementCache entitlementCache) {
+        this.rateLimiter = rateLimiter;
+        this.entitlementCache = entitlementCache;
+    }
+
+    /**
+     * Charges the current request.
+     *
+     * @param endpoint the endpoint group being called
+     * @param cost requests to charge, e.g. the number of URLs in a batch
+     * @throws RateLimitedException if the client's allowance does not cover the cost
+     */
+    public void check(RateLimiter.Endpoint endpoint, int cost) {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.currentRequestAttributes();
+        check(attributes.getRequest(), attributes.getResponse(), endpoint, cost);
+    }
+
+    /**
+     * Charges a request.
+     *
+     * @param request the request being charged
+     * @param response receives the rate limit headers
+     * @param endpoint the endpoint group being called
+     * @param cost requests to charge, e.g. the number of URLs in a batch
+     * @throws RateLimitedException if the client's allowance does not cover the cost
+     */
+    public void check(HttpServletRequest request, HttpServletResponse response, RateLimiter.Endpoint endpoint,
+                      int cost) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        Long userId = auth != null && auth.getPrincipal() instanceof Long id ? id : null;
+        PlanType plan = userId != null ? entitlementCache.get(userId).planType() : null;
+        String client = userId != null ? "user:" + userId : "ip:" + clientNetwork(request.getRemoteAddr());
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(endpoint, plan, client, cost);
+        if (decision == null) {
+            return;
+        }
+        if (response != null) {
+            response.setHeader("RateLimit-Limit", String.valueOf(decision.limit()));
+            response.setHeader("RateLimit-Remaining", String.valueOf(decision.remaining()));
+            response.setHeader("RateLimit-Reset", String.valueOf(decision.resetSeconds()));
+            response.setHeader("RateLimit-Policy", decision.limit() + ";w=3600");
+        }
+        if (decision.allowed()) {
+            return;
+        }
+        if (decision.retryAfterNanos() < 0) {
+            throw new ApiException("This request counts as " + cost + " requests, more than the limit of "
+                    + decision.limit() + " per hour. Please split it into smaller requests.",
+                    HttpStatus.TOO_MANY_REQUESTS);
+        }
+        throw new RateLimitedException("Rate limit exceeded. Please try again in " + decision.retryAfterSeconds()
+                + " seconds.", decision.retryAfterSeconds());
+    }
+
+    /**
+     * Returns the address to limit an anonymous client by. IPv6 clients are limited per
+     * /64, the smallest prefix usually assigned to one subscriber, since they can use any
+     * address within it.
+     */
+    private static String clientNetwork(String remoteAddr) {
+        if (remoteAddr == null || remoteAddr.indexOf(':') < 0) {
+            return remoteAddr;
+        }
+        try {
+            // A literal, so no lookup; IPv4-mapped addresses come back as Inet4Address
+            InetAddress address = InetAddress.getByName(remoteAddr);
+            if (!(address instanceof Inet6Address)) {
+                return address.getHostAddress();
+            }
+            byte[] bytes = address.getAddress();
+            StringBuilder prefix = new StringBuilder();
+            for (int i = 0; i < 8; i += 2) {
+                prefix.append(Integer.toHexString(((bytes[i] & 0xff) << 8) | (bytes[i + 1] & 0xff))).append(':');
+            }
+            return prefix.append(":/64").toString();
+        } catch (UnknownHostException e) {
+            return remoteAddr;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.hopl.security;
+
+import com.hopl.service.RateLimiter;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+/**
+ * Charges one request through the {@link RateLimitGuard} for endpoints that start a single
+ * scan or generation. Endpoints whose cost depends on the request body, such as batch scans,
+ * crawls and bundles, charge the guard themselves once the body has been validated.
+ */
+@Component
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimitGuard rateLimitGuard;
+
+    public RateLimitInterceptor(RateLimitGuard rateLimitGuard) {
+        this.rateLimitGuard = rateLimitGuard;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Async dispatches belong to a request that was already counted
+        if (request.getDispatcherType() != DispatcherType.REQUEST || !"POST".equals(request.getMethod())) {
+            return true;
+        }
+        RateLimiter.Endpoint endpoint = request.getRequestURI().startsWith("/api/scan")
+                ? RateLimiter.Endpoint.SCAN : RateLimiter.Endpoint.GENERATION;
+        rateLimitGuard.check(request, response, endpoint, 1);
+        return true;
+    }
+}
@@ -0,0 +1,168 @@
+package com.hopl.service;
+
+import com.hopl.dto.scan.BatchScanItemDto;
+import com.hopl.exception.ApiException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+@Service
+public class BatchScanService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchScanService.class);
+    private final ScannerService scannerService;
+    private final ExecutorService scanExecutor;
+    private final HostConcurrencyLimiter hostLimiter;
+
+    @Value("${hopl.scan.batch.max-urls:500}")
+    private int maxUrls;
+
+    @Value("${hopl.scan.batch.max-in-flight:16}")
+    private int maxInFlight;
+
+    public BatchScanService(ScannerService scannerService,
+                            @Qualifier("scanExecutor") ExecutorService scanExecutor,
+                            @Value("${hopl.scan.batch.per-host-limit:2}") int perHostLimit) {
+        this.scannerService = scannerService;
+        this.scanExecutor = scanExecutor;
+        this.hostLimiter = new HostConcurrencyLimiter(perHostLimit);
+    }
+
+    /**
+     * Validates a batch and returns its normalized, de-duplicated URLs in request order.
+     *
+     * @param urls URLs as submitted
+     * @return normalized URLs
+     */
+    public List<String> prepare(List<String> urls) {
+        if (urls.size() > maxUrls) {
+            throw new ApiException("A batch may contain at most " + maxUrls + " URLs", HttpStatus.BAD_REQUEST);
+        }
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String url : urls) {
+            normalized.add(scannerService.normalizeUrl(url.trim()));
+        }
+        return new ArrayList<>(normalized);
+    }
+
+    /**
+     * Scans every URL on the scan executor and hands each result to the sink as soon
+     * as it completes. At most {@code max-in-flight} scans of the batch are pending at
+     * any time, so memory does not grow with the batch size. A URL is only submitted once
+     * its host has a free permit; URLs for busy hosts are held back, so scan threads never
+     * wait on the per-host limit. Runs on the calling thread until all results have been
+     * delivered.
+     *
+     * @param urls normalized URLs from {@link #prepare(List)}
+     * @param userId the requesting user's ID
+     * @param sink receives results in completion order
+     */
+    public void scanAll(List<String> urls, Long userId, Consumer<BatchScanItemDto> sink) {
+        BlockingQueue<ScanTask> completed = new LinkedBlockingQueue<>();
+        Set<ScanTask> pending = new HashSet<>();
+        List<String> waiting = new LinkedList<>(urls);
+        try {
+            while (!waiting.isEmpty() || !pending.isEmpty()) {
+                Iterator<String> candidates = waiting.iterator();
+                while (pending.size() < maxInFlight && candidates.hasNext()) {
+                    String url = candidates.next();
+                    if (hostLimiter.tryAcquire(hostOf(url))) {
+                        candidates.remove();
+                        pending.add(submit(url, userId, completed));
+                    }
+                }
+                if (pending.isEmpty()) {
+                    // Every remaining host is busy with other batches; wait here rather than on a scan thread
+                    String url = waiting.remove(0);
+                    hostLimiter.acquire(hostOf(url));
+                    pending.add(submit(url, userId, completed));
+                }
+                ScanTask done = completed.take();
+                pending.remove(done);
+                sink.accept(done.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pending.forEach(f -> f.cancel(true));
+        } catch (ExecutionException | RuntimeException e) {
+            log.warn("Batch scan aborted: {}", e.getMessage());
+            pending.forEach(f -> f.cancel(true));
+        }
+    }
+
+    /** Starts a scan whose host permit is already held; the task gives the permit back however it ends. */
+    private ScanTask submit(String url, Long userId, BlockingQueue<ScanTask> completed) {
+        ScanTask task = new ScanTask(url, userId, completed);
+        try {
+            scanExecutor.execute(task);
+        } catch (RuntimeException e) {
+            task.cancel(false);
+            throw e;
+        }
+        return task;
+    }
+
+    /**
+     * A scan holding its host's permit. The scan releases the permit when it finishes; a task
+     * cancelled before it starts, e.g. when the batch is aborted, releases it on cancellation.
+     */
+    private final class ScanTask extends FutureTask<BatchScanItemDto> {
+        private final String host;
+        private final BlockingQueue<ScanTask> completed;
+        private final AtomicBoolean claimed;
+
+        ScanTask(String url, Long userId, BlockingQueue<ScanTask> completed) {
+            this(url, userId, completed, new AtomicBoolean());
+        }
+
+        private ScanTask(String url, Long userId, BlockingQueue<ScanTask> completed, AtomicBoolean claimed) {
+            super(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    throw new CancellationException();
+                }
+                try {
+                    return scanOne(url, userId);
+                } finally {
+                    hostLimiter.release(hostOf(url));
+                }
+            });
+            this.host = hostOf(url);
+            this.completed = completed;
+            this.claimed = claimed;
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled() && claimed.compareAndSet(false, true)) {
+                hostLimiter.release(host);
+            }
+            completed.add(this);
+        }
+    }
+
+    private BatchScanItemDto scanOne(String url, Long userId) {
+        try {
+            return BatchScanItemDto.completed(url, scannerService.scan(url, userId));
+        } catch (RuntimeException e) {
+            return BatchScanItemDto.failed(url, e.getMessage());
+        }
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = new URI(url).getHost();
+            return host != null ? host.toLowerCase() : url;
+        } catch (Exception e) {
+            return url;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.hopl.service;
+
+/**
+ * Consecutive-failure circuit breaker. After {@code failureThreshold} failures in a row
+ * the circuit opens and calls are rejected without being attempted; once
+ * {@code openMillis} have passed a single trial call is let through, which closes the
+ * circuit on success or re-opens it on failure.
+ */
+class CircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openNanos = openMillis * 1_000_000L;
+    }
+
+    /**
+     * Asks permission to make a call. Every permitted call must be followed by exactly one
+     * of {@link #onSuccess()}, {@link #onFailure()} or {@link #onIgnored()}.
+     *
+     * @return false if the circuit is open and the call should fail fast
+     */
+    synchronized boolean tryAcquire() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            default:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+        }
+    }
+
+    /** Records a call that reached a healthy upstream. */
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+        trialInFlight = false;
+    }
+
+    /** Records a call that failed because the upstream is unavailable or degraded. */
+    synchronized void onFailure() {
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            failures = 0;
+        }
+    }
+
+    /** Records a call whose outcome says nothing about upstream health, such as a client error. */
+    synchronized void onIgnored() {
+        trialInFlight = false;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+}
@@ -1,45 +1,108 @@
 package com.hopl.service;
 
-import com.hopl.model.User;
+import com.hopl.model.CreditLedgerEntry;
+import com.hopl.model.enums.CreditLedgerReason;
 import com.hopl.model.enums.PlanType;
+import com.hopl.repository.CreditLedgerRepository;
 import com.hopl.repository.UserRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Credit balances, changed only by conditional updates on the user row so concurrent
+ * generations cannot overdraw or lose an update. Credits are reserved before a document
+ * is generated and refunded if it fails or is served from cache. Every change to a
+ * metered balance is recorded in the append-only {@code credit_ledger} and written
+ * through to the {@link EntitlementCache}; plans with unlimited documents are never
+ * charged and are recognized from the cache alone.
+ */
 @Service
 public class CreditService {
 
+    private static final Set<PlanType> UNLIMITED = Arrays.stream(PlanType.values())
+            .filter(PlanType::isUnlimited)
+            .collect(Collectors.toCollection(() -> EnumSet.noneOf(PlanType.class)));
+
     private final UserRepository userRepository;
+    private final CreditLedgerRepository ledgerRepository;
+    private final EntitlementCache entitlements;
 
-    public CreditService(UserRepository userRepository) {
+    public CreditService(UserRepository userRepository, CreditLedgerRepository ledgerRepository,
+                         EntitlementCache entitlements) {
         this.userRepository = userRepository;
+        this.ledgerRepository = ledgerRepository;
+        this.entitlements = entitlements;
     }
 
     /**
-     * Checks if user can generate a document based on their plan/credits.
+     * Checks if user can generate a document based on their plan/credits, from the
+     * {@link EntitlementCache}. Only a hint for failing early; {@link #reserveCredits} decides.
      *
      * @param userId user ID
      * @return true if the user has available credits or unlimited plan
      */
     public boolean canGenerate(Long userId) {
-        return userRepository.findById(userId)
-                .map(user -> user.getPlanType().isUnlimited() || user.getCredits() > 0)
-                .orElse(false);
+        return entitlements.get(userId).canGenerate();
+    }
+
+    /**
+     * Deducts credits, or none if the balance does not cover them all. The check and
+     * deduction are a single conditional update, so concurrent reservations cannot
+     * overdraw the balance.
+     *
+     * @param userId user ID
+     * @param count credits to reserve
+     * @param reference what the credits are for, recorded in the ledger
+     * @return true if reserved or the plan is unlimited
+     */
+    @Transactional
+    public boolean reserveCredits(Long userId, int count, String reference) {
+        if (entitlements.get(userId).planType().isUnlimited()) {
+            return true;
+        }
+        if (userRepository.deductCredits(userId, count, UNLIMITED) == 1) {
+            ledgerRepository.save(new CreditLedgerEntry(userId, -count, CreditLedgerReason.RESERVE, reference));
+            entitlements.updated(userId);
+            return true;
+        }
+        return userRepository.existsByIdAndPlanTypeIn(userId, UNLIMITED);
+    }
+
+    /**
+     * Like {@link #reserveCredits}, but reserves nothing if credits reserved under the
+     * reference are still held, so work retried after a crash is charged once.
+     *
+     * @param userId user ID
+     * @param count credits the work needs
+     * @param reference identifies the work, unique to it
+     * @return true if the credits are held or the plan is unlimited
+     */
+    @Transactional
+    public boolean reserveCreditsOnce(Long userId, int count, String reference) {
+        if (-ledgerRepository.sumDelta(userId, reference) >= count) {
+            return true;
+        }
+        return reserveCredits(userId, count, reference);
     }
 
     /**
-     * Consumes one credit after document generation.
+     * Returns credits reserved with {@link #reserveCredits} but not used.
      *
      * @param userId user ID
+     * @param count credits to return
+     * @param reference the reference the credits were reserved under
      */
     @Transactional
-    public void consumeCredit(Long userId) {
-        userRepository.findById(userId).ifPresent(user -> {
-            if (!user.getPlanType().isUnlimited() && user.getCredits() > 0) {
-                user.setCredits(user.getCredits() - 1);
-                userRepository.save(user);
-            }
-        });
+    public void refundCredits(Long userId, int count, String reference) {
+        if (count > 0 && userRepository.addCredits(userId, count, UNLIMITED) == 1) {
+            ledgerRepository.save(new CreditLedgerEntry(userId, count, CreditLedgerReason.REFUND, reference));
+            entitlements.updated(userId);
+        }
     }
 
     /**
@@ -50,12 +113,11 @@ public class CreditService {
      */
     @Transactional
     public void grantCredits(Long userId, PlanType planType) {
-        userRepository.findById(userId).ifPresent(user -> {
-            user.setPlanType(planType);
-            if (!planType.isUnlimited()) {
-                user.setCredits(user.getCredits() + planType.getDocumentLimit());
-            }
-            userRepository.save(user);
-        });
+        userRepository.updatePlanType(userId, planType);
+        if (planType.getDocumentLimit() > 0 && userRepository.addCredits(userId, planType.getDocumentLimit(), UNLIMITED) == 1) {
+            ledgerRepository.save(new CreditLedgerEntry(userId, planType.getDocumentLimit(), CreditLedgerReason.GRANT,
+                    planType.name()));
+        }
+        entitlements.updated(userId);
     }
 }
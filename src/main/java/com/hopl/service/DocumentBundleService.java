@@ -0,0 +1,228 @@
+package com.hopl.service;
+
+import com.hopl.dto.document.BundleItemDto;
+import com.hopl.dto.document.GenerateBundleRequestDto;
+import com.hopl.dto.document.GenerateDocRequestDto;
+import com.hopl.dto.document.GenerateDocResponseDto;
+import com.hopl.exception.ApiException;
+import com.hopl.model.enums.DocumentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Generates several document types for one business concurrently. Credits for the whole
+ * bundle are reserved up front and those not spent on a newly generated document are
+ * refunded once it finishes. A user runs one bundle at a time, with at most
+ * {@code hopl.generation.bundle.concurrency} of its documents being written at once.
+ */
+@Service
+public class DocumentBundleService {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentBundleService.class);
+    private final DocumentGeneratorService documentService;
+    private final CreditService creditService;
+    private final int concurrency;
+    private final Set<Long> activeUsers = ConcurrentHashMap.newKeySet();
+
+    public DocumentBundleService(DocumentGeneratorService documentService,
+                                 CreditService creditService,
+                                 @Value("${hopl.generation.bundle.concurrency:4}") int concurrency) {
+        this.documentService = documentService;
+        this.creditService = creditService;
+        this.concurrency = Math.max(1, concurrency);
+    }
+
+    /**
+     * Validates a bundle and returns its distinct document types in request order.
+     *
+     * @param documentTypes types as submitted
+     * @return document types
+     */
+    public List<DocumentType> prepare(List<String> documentTypes) {
+        Set<DocumentType> types = new LinkedHashSet<>();
+        for (String type : documentTypes) {
+            try {
+                types.add(DocumentType.valueOf(type.trim()));
+            } catch (IllegalArgumentException e) {
+                throw new ApiException("Unknown document type: " + type, HttpStatus.BAD_REQUEST);
+            }
+        }
+        return new ArrayList<>(types);
+    }
+
+    /**
+     * Starts generating every document of a bundle and hands each to the sink as soon as
+     * it completes. No thread is held while the documents are written. Cancelling the
+     * returned future stops the bundle: documents not yet started are skipped and those
+     * being written are abandoned, and their credits are refunded.
+     *
+     * @param types document types from {@link #prepare(List)}
+     * @param request business details shared by all documents
+     * @param userId the requesting user's ID
+     * @param sink receives results in completion order; throwing cancels the bundle
+     * @return completes with the bundle summary once every document has finished
+     * @throws ApiException 409 if the user already has a bundle running, 402 if their credits do not cover it
+     */
+    public CompletableFuture<Summary> generateAll(List<DocumentType> types, GenerateBundleRequestDto request,
+                                                  Long userId, Consumer<BundleItemDto> sink) {
+        if (!activeUsers.add(userId)) {
+            throw new ApiException("A document bundle is already being generated for this account.", HttpStatus.CONFLICT);
+        }
+        String reference = "bundle:" + UUID.randomUUID();
+        if (!creditService.reserveCredits(userId, types.size(), reference)) {
+            activeUsers.remove(userId);
+            throw new ApiException("Not enough credits for " + types.size() + " documents. Please purchase a plan to generate documents.",
+                    HttpStatus.PAYMENT_REQUIRED);
+        }
+        BundleRun run = new BundleRun(types, request, userId, reference, sink);
+        run.launchMore();
+        return run.result;
+    }
+
+    private static GenerateDocRequestDto toDocumentRequest(DocumentType type, GenerateBundleRequestDto bundle) {
+        GenerateDocRequestDto request = new GenerateDocRequestDto();
+        request.setDocumentType(type.name());
+        request.setBusinessName(bundle.getBusinessName());
+        request.setBusinessType(bundle.getBusinessType());
+        request.setWebsiteUrl(bundle.getWebsiteUrl());
+        request.setJurisdiction(bundle.getJurisdiction());
+        request.setLanguage(bundle.getLanguage());
+        request.setScanId(bundle.getScanId());
+        request.setAdditionalInfo(bundle.getAdditionalInfo());
+        return request;
+    }
+
+    /** One bundle in progress; launches documents as earlier ones finish. */
+    private final class BundleRun {
+        private final Iterator<DocumentType> remaining;
+        private final GenerateBundleRequestDto request;
+        private final Long userId;
+        private final String reference;
+        private final Consumer<BundleItemDto> sink;
+        private final int reserved;
+        private final CompletableFuture<Summary> result = new CompletableFuture<>();
+        private int running;
+        private int completed;
+        private int failed;
+        private int charged;
+        private boolean closed;
+
+        BundleRun(List<DocumentType> types, GenerateBundleRequestDto request, Long userId, String reference,
+                  Consumer<BundleItemDto> sink) {
+            this.remaining = types.iterator();
+            this.request = request;
+            this.userId = userId;
+            this.reference = reference;
+            this.sink = sink;
+            this.reserved = types.size();
+        }
+
+        /**
+         * Starts documents until {@code concurrency} are running. Only the counters are read
+         * under the lock: starting a document and refunding at the end query the database,
+         * which would otherwise block other completions and pin a virtual thread.
+         */
+        void launchMore() {
+            while (true) {
+                DocumentType type = null;
+                Summary summary = null;
+                synchronized (this) {
+                    if (running < concurrency && remaining.hasNext() && !result.isCancelled()) {
+                        type = remaining.next();
+                        running++;
+                    } else if (running == 0 && !closed) {
+                        closed = true;
+                        summary = new Summary(completed, failed, charged);
+                    }
+                }
+                if (type == null) {
+                    if (summary != null) {
+                        finish(summary);
+                    }
+                    return;
+                }
+                DocumentType started = type;
+                start(started).whenComplete((doc, error) -> finished(started, doc, error));
+            }
+        }
+
+        private CompletableFuture<GenerateDocResponseDto> start(DocumentType type) {
+            try {
+                return documentService.generateStream(toDocumentRequest(type, request), userId, chunk -> {
+                    if (result.isCancelled()) {
+                        throw new CancellationException("Bundle cancelled");
+                    }
+                });
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+
+        private void finished(DocumentType type, GenerateDocResponseDto doc, Throwable error) {
+            BundleItemDto item;
+            synchronized (this) {
+                running--;
+                if (error == null) {
+                    completed++;
+                    if (!doc.isCached()) {
+                        charged++;
+                    }
+                    item = BundleItemDto.completed(type.name(), doc);
+                } else {
+                    failed++;
+                    item = BundleItemDto.failed(type.name(), failureMessage(type, error));
+                }
+            }
+            if (!result.isCancelled()) {
+                try {
+                    sink.accept(item);
+                } catch (RuntimeException e) {
+                    result.cancel(false);
+                }
+            }
+            launchMore();
+        }
+
+        private void finish(Summary summary) {
+            activeUsers.remove(userId);
+            creditService.refundCredits(userId, reserved - summary.creditsUsed(), reference);
+            result.complete(summary);
+        }
+
+        private String failureMessage(DocumentType type, Throwable error) {
+            Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+            if (cause instanceof ApiException api) {
+                return api.getMessage();
+            }
+            if (!(cause instanceof CancellationException)) {
+                log.error("Bundle document {} failed for user {}", type, userId, cause);
+            }
+            return "Failed to generate document. Please try again.";
+        }
+    }
+
+    /**
+     * Outcome of a bundle.
+     *
+     * @param completed documents delivered, including cached ones
+     * @param failed documents that could not be generated
+     * @param creditsUsed credits kept after refunding failed and cached documents
+     */
+    public record Summary(int completed, int failed, int creditsUsed) {
+    }
+}
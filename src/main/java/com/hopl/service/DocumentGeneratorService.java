@@ -1,51 +1,47 @@
 package com.hopl.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hopl.dto.document.GenerateDocRequestDto;
 import com.hopl.dto.document.GenerateDocResponseDto;
 import com.hopl.model.GeneratedDocument;
 import com.hopl.model.enums.DocumentType;
 import com.hopl.repository.GeneratedDocumentRepository;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Service
 public class DocumentGeneratorService {
 
-    private static final Logger log = LoggerFactory.getLogger(DocumentGeneratorService.class);
+    private static final String SYSTEM_PROMPT = "You are an expert legal and business document writer. Generate professional, comprehensive documents ready for immediate use. Output ONLY the document content with proper formatting using Markdown.";
     private final GeneratedDocumentRepository documentRepository;
-    private final ObjectMapper objectMapper;
-    private final RestTemplate restTemplate;
-
-    @Value("${hopl.openai.api-key:demo}")
-    private String apiKey;
-
-    @Value("${hopl.openai.model:gpt-4o-mini}")
-    private String model;
-
-    @Value("${hopl.openai.base-url:https://api.openai.com/v1}")
-    private String baseUrl;
+    private final LlmClient llmClient;
+    private final GenerationCache generationCache;
+    private final PromptTemplateRegistry promptTemplates;
+    private final ScanPromptContext scanPromptContext;
 
     public DocumentGeneratorService(GeneratedDocumentRepository documentRepository,
-                                    ObjectMapper objectMapper) {
+                                    LlmClient llmClient,
+                                    GenerationCache generationCache,
+                                    PromptTemplateRegistry promptTemplates,
+                                    ScanPromptContext scanPromptContext) {
         this.documentRepository = documentRepository;
-        this.objectMapper = objectMapper;
-        this.restTemplate = new RestTemplate();
+        this.llmClient = llmClient;
+        this.generationCache = generationCache;
+        this.promptTemplates = promptTemplates;
+        this.scanPromptContext = scanPromptContext;
     }
 
     /**
-     * Generates a legal/business document using AI.
+     * Generates a legal/business document using AI. A request whose rendered prompt matches
+     * one generated within {@code hopl.generation.cache.ttl-hours} is answered from that
+     * output instead: the user's own earlier document is returned as is, anyone else's is
+     * copied into a new document. Either way the response is marked as cached.
+     * <p>
+     * When the request links a scan, its failed checks and findings are added to the prompt.
      *
      * @param request document generation parameters
      * @param userId the requesting user's ID
@@ -53,15 +49,79 @@ public class DocumentGeneratorService {
      */
     public GenerateDocResponseDto generate(GenerateDocRequestDto request, Long userId) {
         DocumentType docType = DocumentType.valueOf(request.getDocumentType());
-        String prompt = buildPrompt(docType, request);
+        String prompt = buildPrompt(docType, request, userId);
+
+        if (llmClient.isDemo()) {
+            return save(docType, request, userId, getDemoContent(docType, request.getBusinessName()), null, false, null);
+        }
+        String hash = llmClient.requestHash(SYSTEM_PROMPT, prompt);
+        GenerateDocResponseDto cached = fromCache(hash, docType, request, userId);
+        if (cached != null) {
+            return cached;
+        }
+        LlmClient.Completion completion = llmClient.complete(SYSTEM_PROMPT, prompt);
+        return save(docType, request, userId, completion.text(), hash, false, completion.promptTokens());
+    }
+
+    /**
+     * Generates a document, relaying the completion to the caller as it is produced.
+     * No thread is held while the model writes; the document is persisted once the
+     * stream completes. Cached outputs are served as in {@link #generate}, relayed
+     * in one pass.
+     *
+     * @param request document generation parameters
+     * @param userId the requesting user's ID
+     * @param onChunk receives each piece of content in order; throwing aborts the generation
+     * @return the saved document, or a failure if the completion could not be finished;
+     *         cancelling it aborts the completion
+     */
+    public CompletableFuture<GenerateDocResponseDto> generateStream(GenerateDocRequestDto request, Long userId,
+                                                                    Consumer<String> onChunk) {
+        DocumentType docType = DocumentType.valueOf(request.getDocumentType());
+        String prompt = buildPrompt(docType, request, userId);
 
-        String content;
-        if ("demo".equals(apiKey)) {
-            content = getDemoContent(docType, request.getBusinessName());
-        } else {
-            content = callOpenAi(prompt);
+        if (llmClient.isDemo()) {
+            return relay(getDemoContent(docType, request.getBusinessName()), onChunk)
+                    .thenApply(text -> save(docType, request, userId, text, null, false, null));
         }
+        String hash = llmClient.requestHash(SYSTEM_PROMPT, prompt);
+        GenerateDocResponseDto cached = fromCache(hash, docType, request, userId);
+        if (cached != null) {
+            return relay(cached.getContent(), onChunk).thenApply(text -> cached);
+        }
+        CompletableFuture<LlmClient.Completion> stream = llmClient.stream(SYSTEM_PROMPT, prompt, onChunk);
+        CompletableFuture<GenerateDocResponseDto> saved = stream
+                .thenApply(completion -> save(docType, request, userId, completion.text(), hash, false,
+                        completion.promptTokens()));
+        // Cancelling the returned future aborts the completion; nothing is saved
+        saved.whenComplete((doc, error) -> {
+            if (saved.isCancelled()) stream.cancel(false);
+        });
+        return saved;
+    }
 
+    /** Answers a request from an earlier output with the same prompt hash, or returns null if there is none. */
+    private GenerateDocResponseDto fromCache(String hash, DocumentType docType, GenerateDocRequestDto request,
+                                             Long userId) {
+        LocalDateTime since = generationCache.validSince();
+        Optional<GeneratedDocument> own = documentRepository
+                .findFirstByUserIdAndPromptHashAndCreatedAtAfterOrderByCreatedAtDesc(userId, hash, since);
+        if (own.isPresent()) {
+            GenerateDocResponseDto dto = toResponse(own.get());
+            dto.setCached(true);
+            return dto;
+        }
+        GenerationCache.Entry entry = generationCache.get(hash);
+        if (entry == null) {
+            documentRepository.findFirstByPromptHashAndCachedFalseAndCreatedAtAfterOrderByCreatedAtDesc(hash, since)
+                    .ifPresent(generationCache::put);
+            entry = generationCache.get(hash);
+        }
+        return entry != null ? save(docType, request, userId, entry.content(), hash, true, null) : null;
+    }
+
+    private GenerateDocResponseDto save(DocumentType docType, GenerateDocRequestDto request, Long userId,
+                                        String content, String promptHash, boolean cached, Long promptTokens) {
         GeneratedDocument doc = new GeneratedDocument();
         doc.setDocumentType(docType.name());
         doc.setTitle(docType.getDisplayName() + " - " + request.getBusinessName());
@@ -72,79 +132,48 @@ public class DocumentGeneratorService {
         doc.setLanguage(Optional.ofNullable(request.getLanguage()).orElse("en"));
         doc.setUserId(userId);
         doc.setScanId(request.getScanId());
+        doc.setPromptHash(promptHash);
+        doc.setCached(cached);
+        doc.setPromptTokens(promptTokens);
 
         GeneratedDocument saved = documentRepository.save(doc);
+        if (!cached) {
+            generationCache.put(saved);
+        }
         return toResponse(saved);
     }
 
-    private String buildPrompt(DocumentType docType, GenerateDocRequestDto request) {
-        String template = loadPromptTemplate(docType);
-        String date = LocalDate.now().toString();
-        String jurisdiction = Optional.ofNullable(request.getJurisdiction()).orElse("GLOBAL");
-
-        return template
-                .replace("{{businessName}}", request.getBusinessName())
-                .replace("{{businessType}}", Optional.ofNullable(request.getBusinessType()).orElse("online business"))
-                .replace("{{websiteUrl}}", Optional.ofNullable(request.getWebsiteUrl()).orElse(""))
-                .replace("{{jurisdiction}}", jurisdiction)
-                .replace("{{date}}", date)
-                .replace("{{language}}", Optional.ofNullable(request.getLanguage()).orElse("English"))
-                .replace("{{additionalInfo}}", Optional.ofNullable(request.getAdditionalInfo()).orElse(""));
-    }
-
-    private String loadPromptTemplate(DocumentType docType) {
-        String filename = "prompts/" + docType.name().toLowerCase().replace("_", "-") + ".txt";
-        try {
-            ClassPathResource resource = new ClassPathResource(filename);
-            return new String(resource.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            log.warn("Prompt template not found: {}. Using default.", filename);
-            return getDefaultPrompt(docType);
+    private String buildPrompt(DocumentType docType, GenerateDocRequestDto request, Long userId) {
+        Map<String, String> values = new HashMap<>(16);
+        values.put("businessName", request.getBusinessName());
+        values.put("businessType", Optional.ofNullable(request.getBusinessType()).orElse("online business"));
+        values.put("websiteUrl", Optional.ofNullable(request.getWebsiteUrl()).orElse(""));
+        values.put("jurisdiction", Optional.ofNullable(request.getJurisdiction()).orElse("GLOBAL"));
+        values.put("date", LocalDate.now().toString());
+        values.put("language", Optional.ofNullable(request.getLanguage()).orElse("English"));
+        values.put("additionalInfo", Optional.ofNullable(request.getAdditionalInfo()).orElse(""));
+        String scanFindings = scanPromptContext.render(request.getScanId(), userId);
+        values.put("scanFindings", scanFindings);
+        String prompt = promptTemplates.render(docType, values);
+        // Custom templates predating the placeholder still get the findings
+        if (!scanFindings.isEmpty() && !promptTemplates.uses(docType, "scanFindings")) {
+            prompt = prompt + "\n" + scanFindings;
         }
+        return prompt;
     }
 
-    private String getDefaultPrompt(DocumentType docType) {
-        return """
-                You are an expert legal document writer. Generate a professional %s for the following business:
-                
-                Business Name: {{businessName}}
-                Business Type: {{businessType}}
-                Website: {{websiteUrl}}
-                Jurisdiction: {{jurisdiction}}
-                Date: {{date}}
-                Additional info: {{additionalInfo}}
-                
-                Write the document in {{language}}. Use proper legal formatting with numbered sections and subsections.
-                Include all standard clauses required by applicable regulations.
-                The document should be comprehensive, professional, and ready to use.
-                Do NOT include any AI disclaimers or notes - output ONLY the document content.
-                """.formatted(docType.getDisplayName());
-    }
-
-    private String callOpenAi(String prompt) {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-
-        Map<String, Object> body = new HashMap<>();
-        body.put("model", model);
-        body.put("messages", List.of(
-                Map.of("role", "system", "content", "You are an expert legal and business document writer. Generate professional, comprehensive documents ready for immediate use. Output ONLY the document content with proper formatting using Markdown."),
-                Map.of("role", "user", "content", prompt)
-        ));
-        body.put("temperature", 0.3);
-        body.put("max_tokens", 4000);
-
+    private static CompletableFuture<String> relay(String content, Consumer<String> onChunk) {
         try {
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
-            ResponseEntity<String> response = restTemplate.exchange(
-                    baseUrl + "/chat/completions", HttpMethod.POST, entity, String.class);
-
-            JsonNode root = objectMapper.readTree(response.getBody());
-            return root.path("choices").path(0).path("message").path("content").asText();
-        } catch (Exception e) {
-            log.error("OpenAI API call failed", e);
-            throw new RuntimeException("Failed to generate document. Please try again.");
+            int start = 0;
+            while (start < content.length()) {
+                int end = content.indexOf('\n', start);
+                end = end < 0 ? content.length() : end + 1;
+                onChunk.accept(content.substring(start, end));
+                start = end;
+            }
+            return CompletableFuture.completedFuture(content);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
     }
 
@@ -205,6 +234,8 @@ public class DocumentGeneratorService {
         dto.setBusinessName(doc.getBusinessName());
         dto.setJurisdiction(doc.getJurisdiction());
         dto.setCreatedAt(doc.getCreatedAt());
+        dto.setCached(doc.isCached());
+        dto.setPromptTokens(doc.getPromptTokens());
         return dto;
     }
 }
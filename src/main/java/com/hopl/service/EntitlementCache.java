@@ -0,0 +1,89 @@
+package com.hopl.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hopl.model.Entitlement;
+import com.hopl.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Plan and credits per user, so entitlement checks do not query the database. Writers
+ * call {@link #updated(Long)}, which reloads the entry once their transaction commits and
+ * tells other instances through the {@link EntitlementInvalidationChannel}. At most
+ * {@code hopl.entitlements.cache.max-size} users are kept, and entries expire after
+ * {@code hopl.entitlements.cache.ttl-minutes} in case the database is changed directly.
+ * The cache only decides early rejections; credits are taken by the conditional update
+ * in {@link CreditService#reserveCredits}.
+ */
+@Component
+public class EntitlementCache {
+
+    private final UserRepository userRepository;
+    private final EntitlementInvalidationChannel channel;
+    private final Cache<Long, Entitlement> cache;
+    private final String origin = UUID.randomUUID().toString();
+
+    public EntitlementCache(UserRepository userRepository,
+                            EntitlementInvalidationChannel channel,
+                            @Value("${hopl.entitlements.cache.max-size:10000}") long maxSize,
+                            @Value("${hopl.entitlements.cache.ttl-minutes:10}") int ttlMinutes,
+                            MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.channel = channel;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "entitlements");
+        channel.subscribe((from, userId) -> {
+            if (!origin.equals(from)) {
+                cache.invalidate(userId);
+            }
+        });
+    }
+
+    /**
+     * Returns a user's entitlement, loading it on first use.
+     *
+     * @param userId user ID
+     * @return the entitlement, or {@link Entitlement#NONE} for an unknown user
+     */
+    public Entitlement get(Long userId) {
+        Entitlement entitlement = cache.get(userId, id -> userRepository.findEntitlement(id).orElse(null));
+        return entitlement != null ? entitlement : Entitlement.NONE;
+    }
+
+    /**
+     * Records that a user's plan or credits changed. The entry is reloaded after the
+     * current transaction commits, or at once outside a transaction.
+     *
+     * @param userId user ID
+     */
+    public void updated(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reload(userId);
+                }
+            });
+        } else {
+            reload(userId);
+        }
+    }
+
+    private void reload(Long userId) {
+        // Loading inside compute orders concurrent reloads, so the last one wins with the latest balance
+        cache.asMap().compute(userId, (id, previous) -> userRepository.findEntitlement(id).orElse(null));
+        channel.publish(origin, userId);
+    }
+}
@@ -0,0 +1,30 @@
+package com.hopl.service;
+
+/**
+ * Tells other application instances that a user's plan or credits changed, so they drop
+ * their cached {@link com.hopl.model.Entitlement}. The implementation is chosen with
+ * {@code hopl.entitlements.invalidation}; {@code local} only reaches caches in the same
+ * process, which is enough for a single instance.
+ */
+public interface EntitlementInvalidationChannel {
+
+    /**
+     * Announces a change.
+     *
+     * @param origin identifies the publishing cache, which ignores its own messages
+     * @param userId the user whose entitlement changed
+     */
+    void publish(String origin, Long userId);
+
+    /**
+     * Registers a listener for changes, including those published by this instance.
+     *
+     * @param listener receives the origin and user ID of every change
+     */
+    void subscribe(Listener listener);
+
+    @FunctionalInterface
+    interface Listener {
+        void invalidated(String origin, Long userId);
+    }
+}
@@ -0,0 +1,97 @@
+package com.hopl.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.hopl.model.GeneratedDocument;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * In-process cache of generated document content keyed by completion request hash.
+ * Entries expire {@code hopl.generation.cache.ttl-hours} after the document was first
+ * generated, and the total content size is bounded by {@code hopl.generation.cache.max-size},
+ * beyond which Caffeine's W-TinyLFU policy evicts the entries least likely to be requested
+ * again, weighing frequency as well as recency; the same window bounds the database lookup
+ * behind it, so both layers agree on what counts as a hit.
+ */
+@Component
+public class GenerationCache {
+
+    private final Cache<String, Entry> cache;
+    private final Duration ttl;
+
+    public GenerationCache(@Value("${hopl.generation.cache.ttl-hours:24}") int ttlHours,
+                           @Value("${hopl.generation.cache.max-size:32MB}") DataSize maxSize,
+                           MeterRegistry meterRegistry) {
+        this.ttl = Duration.ofHours(ttlHours);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String hash, Entry entry) -> 128 + entry.content().length() * 2)
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String hash, Entry entry, long currentTime) {
+                        return remainingNanos(entry.createdAt());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String hash, Entry entry, long currentTime, long currentDuration) {
+                        return remainingNanos(entry.createdAt());
+                    }
+
+                    @Override
+                    public long expireAfterRead(String hash, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "generatedDocuments");
+    }
+
+    /** Returns the oldest creation time a document may have to still be served as a hit. */
+    public LocalDateTime validSince() {
+        return LocalDateTime.now().minus(ttl);
+    }
+
+    /**
+     * Returns the cached output for a request hash.
+     *
+     * @param hash completion request hash
+     * @return the cached entry or null
+     */
+    public Entry get(String hash) {
+        return cache.getIfPresent(hash);
+    }
+
+    /**
+     * Caches the output of a generated document.
+     *
+     * @param document a saved, generated (not copied) document with its prompt hash set
+     */
+    public void put(GeneratedDocument document) {
+        if (document.getPromptHash() != null && remainingNanos(document.getCreatedAt()) > 0) {
+            cache.put(document.getPromptHash(), new Entry(document.getContent(), document.getCreatedAt()));
+        }
+    }
+
+    private long remainingNanos(LocalDateTime createdAt) {
+        Duration age = Duration.between(createdAt, LocalDateTime.now());
+        return Math.max(0, ttl.minus(age).toNanos());
+    }
+
+    /**
+     * A previously generated output.
+     *
+     * @param content generated Markdown
+     * @param createdAt when it was generated
+     */
+    public record Entry(String content, LocalDateTime createdAt) {
+    }
+}
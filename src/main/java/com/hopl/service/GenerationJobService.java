@@ -0,0 +1,264 @@
+package com.hopl.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hopl.config.WorkerThreads;
+import com.hopl.dto.document.GenerateDocRequestDto;
+import com.hopl.dto.document.GenerateDocResponseDto;
+import com.hopl.dto.document.GenerationJobDto;
+import com.hopl.exception.ApiException;
+import com.hopl.exception.QueueFullException;
+import com.hopl.model.GenerationJob;
+import com.hopl.model.enums.DocumentType;
+import com.hopl.model.enums.GenerationJobStatus;
+import com.hopl.repository.GenerationJobRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Queue of document generation requests, persisted in {@code generation_jobs} and drained
+ * by a fixed pool of {@code hopl.generation.queue.workers}. Waiting jobs run by plan
+ * priority, then in submission order. At most {@code hopl.generation.queue.max-depth}
+ * jobs may wait; beyond that submissions are rejected with 429 rather than queued
+ * indefinitely. Jobs left unfinished by a previous run are resumed at startup.
+ */
+@Service
+public class GenerationJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationJobService.class);
+    private final GenerationJobRepository jobRepository;
+    private final EntitlementCache entitlementCache;
+    private final DocumentGeneratorService documentService;
+    private final CreditService creditService;
+    private final ObjectMapper objectMapper;
+    private final int maxDepth;
+    private final ThreadPoolExecutor workers;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final ConcurrentHashMap<Long, CompletableFuture<GenerateDocResponseDto>> waiters = new ConcurrentHashMap<>();
+
+    public GenerationJobService(GenerationJobRepository jobRepository,
+                                EntitlementCache entitlementCache,
+                                DocumentGeneratorService documentService,
+                                CreditService creditService,
+                                ObjectMapper objectMapper,
+                                WorkerThreads workerThreads,
+                                @Value("${hopl.generation.queue.workers:4}") int workerCount,
+                                @Value("${hopl.generation.queue.max-depth:100}") int maxDepth,
+                                MeterRegistry meterRegistry) {
+        this.jobRepository = jobRepository;
+        this.entitlementCache = entitlementCache;
+        this.documentService = documentService;
+        this.creditService = creditService;
+        this.objectMapper = objectMapper;
+        this.maxDepth = maxDepth;
+        // Only QueuedJob tasks are ever executed, so the priority queue can order them. The pool
+        // stays bounded with virtual threads too: its size is the generation concurrency, not a thread budget.
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), workerThreads.factory("generate-"));
+        Gauge.builder("hopl.generation.queue.depth", queued, AtomicInteger::get)
+                .description("Generation jobs waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues a generation request.
+     *
+     * @param request document generation parameters
+     * @param userId the requesting user's ID
+     * @return the pending job, to be polled
+     * @throws QueueFullException if the queue is at capacity
+     */
+    public GenerationJobDto submit(GenerateDocRequestDto request, Long userId) {
+        GenerationJob job = create(request, userId);
+        schedule(job);
+        return toDto(job);
+    }
+
+    /**
+     * Queues a generation request and returns its eventual document.
+     *
+     * @param request document generation parameters
+     * @param userId the requesting user's ID
+     * @return completes with the document, or with the {@link ApiException} the job failed with
+     * @throws QueueFullException if the queue is at capacity
+     */
+    public CompletableFuture<GenerateDocResponseDto> submitAndAwait(GenerateDocRequestDto request, Long userId) {
+        GenerationJob job = create(request, userId);
+        CompletableFuture<GenerateDocResponseDto> result = new CompletableFuture<>();
+        waiters.put(job.getId(), result);
+        schedule(job);
+        return result;
+    }
+
+    /**
+     * Retrieves a job with its document once completed.
+     *
+     * @param jobId job ID
+     * @param userId the requesting user's ID; other users' jobs are not returned
+     * @return the job, or empty if it does not exist or belongs to someone else
+     */
+    public Optional<GenerationJobDto> getJob(Long jobId, Long userId) {
+        return jobRepository.findById(jobId)
+                .filter(job -> job.getUserId().equals(userId))
+                .map(this::toDto);
+    }
+
+    /** Re-queues jobs left unfinished by a previous run of the application. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<GenerationJob> unfinished = jobRepository.findByStatusInOrderByIdAsc(
+                EnumSet.of(GenerationJobStatus.PENDING, GenerationJobStatus.RUNNING));
+        if (!unfinished.isEmpty()) {
+            log.info("Resuming {} unfinished generation jobs", unfinished.size());
+        }
+        unfinished.forEach(job -> {
+            queued.incrementAndGet();
+            schedule(job);
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private GenerationJob create(GenerateDocRequestDto request, Long userId) {
+        try {
+            DocumentType.valueOf(request.getDocumentType());
+        } catch (IllegalArgumentException e) {
+            throw new ApiException("Unknown document type: " + request.getDocumentType(), HttpStatus.BAD_REQUEST);
+        }
+        int depth;
+        do {
+            depth = queued.get();
+            if (depth >= maxDepth) {
+                throw new QueueFullException("Too many documents are being generated. Please try again shortly.", depth);
+            }
+        } while (!queued.compareAndSet(depth, depth + 1));
+
+        try {
+            GenerationJob job = new GenerationJob();
+            job.setUserId(userId);
+            job.setPriority(entitlementCache.get(userId).planType().getQueuePriority());
+            job.setRequestJson(objectMapper.writeValueAsString(request));
+            return jobRepository.save(job);
+        } catch (JsonProcessingException | RuntimeException e) {
+            queued.decrementAndGet();
+            throw e instanceof RuntimeException re ? re : new IllegalStateException(e);
+        }
+    }
+
+    private void schedule(GenerationJob job) {
+        workers.execute(new QueuedJob(job.getId(), job.getPriority()));
+    }
+
+    private void run(Long jobId) {
+        queued.decrementAndGet();
+        CompletableFuture<GenerateDocResponseDto> waiter = waiters.remove(jobId);
+        GenerationJob job = jobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus().isFinished()) {
+            if (waiter != null) {
+                waiter.completeExceptionally(new ApiException("Generation job not found", HttpStatus.NOT_FOUND));
+            }
+            return;
+        }
+        updateStatus(job, GenerationJobStatus.RUNNING);
+        String reference = "job:" + jobId;
+        boolean reserved = false;
+        try {
+            GenerateDocRequestDto request = objectMapper.readValue(job.getRequestJson(), GenerateDocRequestDto.class);
+            // A job resumed after a crash may still hold the credit it reserved before
+            if (!creditService.reserveCreditsOnce(job.getUserId(), 1, reference)) {
+                throw new ApiException("No credits available. Please purchase a plan to generate documents.",
+                        HttpStatus.PAYMENT_REQUIRED);
+            }
+            reserved = true;
+            GenerateDocResponseDto document = documentService.generate(request, job.getUserId());
+            if (document.isCached()) {
+                creditService.refundCredits(job.getUserId(), 1, reference);
+            }
+            reserved = false;
+            job.setDocumentId(document.getId());
+            updateStatus(job, GenerationJobStatus.COMPLETED);
+            if (waiter != null) {
+                waiter.complete(document);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            if (reserved) {
+                creditService.refundCredits(job.getUserId(), 1, reference);
+            }
+            if (workers.isShutdown()) {
+                // Interrupted by shutdown; left unfinished so the next start resumes it
+                return;
+            }
+            ApiException failure = e instanceof ApiException api ? api
+                    : new ApiException("Failed to generate document. Please try again.", HttpStatus.INTERNAL_SERVER_ERROR);
+            if (failure != e) {
+                log.error("Generation job {} failed", jobId, e);
+            }
+            job.setError(failure.getMessage());
+            updateStatus(job, GenerationJobStatus.FAILED);
+            if (waiter != null) {
+                waiter.completeExceptionally(failure);
+            }
+        }
+    }
+
+    private void updateStatus(GenerationJob job, GenerationJobStatus status) {
+        job.setStatus(status);
+        job.setUpdatedAt(LocalDateTime.now());
+        jobRepository.save(job);
+    }
+
+    private GenerationJobDto toDto(GenerationJob job) {
+        GenerationJobDto dto = new GenerationJobDto();
+        dto.setId(job.getId());
+        dto.setStatus(job.getStatus().name());
+        dto.setError(job.getError());
+        dto.setCreatedAt(job.getCreatedAt());
+        if (job.getDocumentId() != null) {
+            documentService.getDocument(job.getDocumentId(), job.getUserId()).ifPresent(dto::setDocument);
+        }
+        return dto;
+    }
+
+    /** A queued job; higher priority first, then lower ID. */
+    private final class QueuedJob implements Runnable, Comparable<QueuedJob> {
+        private final long id;
+        private final int priority;
+
+        QueuedJob(long id, int priority) {
+            this.id = id;
+            this.priority = priority;
+        }
+
+        @Override
+        public void run() {
+            GenerationJobService.this.run(id);
+        }
+
+        @Override
+        public int compareTo(QueuedJob other) {
+            return priority != other.priority ? Integer.compare(other.priority, priority) : Long.compare(id, other.id);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.hopl.service;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps concurrent outbound fetches per host. Entries only exist while a host has
+ * permits held or waiters, so the map stays as small as the set of active hosts.
+ */
+class HostConcurrencyLimiter {
+
+    private final int permitsPerHost;
+    private final ConcurrentHashMap<String, Slot> slots = new ConcurrentHashMap<>();
+
+    HostConcurrencyLimiter(int permitsPerHost) {
+        this.permitsPerHost = permitsPerHost;
+    }
+
+    /**
+     * Blocks until a permit for the host is available.
+     *
+     * @param host the target host
+     * @throws InterruptedException if interrupted while waiting
+     */
+    void acquire(String host) throws InterruptedException {
+        Slot slot = slots.compute(host, (h, s) -> {
+            Slot current = s != null ? s : new Slot(permitsPerHost);
+            current.users++;
+            return current;
+        });
+        try {
+            slot.semaphore.acquire();
+        } catch (InterruptedException e) {
+            leave(host);
+            throw e;
+        }
+    }
+
+    /**
+     * Takes a permit for the host if one is free, without waiting. Callers already
+     * waiting in {@link #acquire(String)} go first.
+     *
+     * @param host the target host
+     * @return true if a permit was taken
+     * @throws InterruptedException if interrupted
+     */
+    boolean tryAcquire(String host) throws InterruptedException {
+        Slot slot = slots.compute(host, (h, s) -> {
+            Slot current = s != null ? s : new Slot(permitsPerHost);
+            current.users++;
+            return current;
+        });
+        boolean acquired = false;
+        try {
+            acquired = slot.semaphore.tryAcquire(0, TimeUnit.SECONDS);
+            return acquired;
+        } finally {
+            if (!acquired) {
+                leave(host);
+            }
+        }
+    }
+
+    /** Releases a permit obtained with {@link #acquire(String)} or {@link #tryAcquire(String)}. */
+    void release(String host) {
+        Slot slot = slots.get(host);
+        if (slot != null) {
+            slot.semaphore.release();
+            leave(host);
+        }
+    }
+
+    private void leave(String host) {
+        slots.computeIfPresent(host, (h, s) -> --s.users == 0 ? null : s);
+    }
+
+    private static final class Slot {
+        final Semaphore semaphore;
+        int users;
+
+        Slot(int permits) {
+            this.semaphore = new Semaphore(permits, true);
+        }
+    }
+}
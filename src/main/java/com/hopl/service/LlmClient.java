@@ -0,0 +1,614 @@
+package com.hopl.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hopl.config.WorkerThreads;
+import com.hopl.exception.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Client for the OpenAI-compatible chat completions API. All calls go through one shared
+ * {@link HttpClient}, which keeps connections alive and multiplexes HTTP/2 streams, and
+ * none of them holds a thread while waiting on the upstream.
+ * <p>
+ * Each attempt is bounded by {@code hopl.openai.timeout-seconds}. Connection failures,
+ * timeouts, 429 and 5xx responses are retried with jittered exponential backoff, waiting
+ * at least as long as the upstream asks for in {@code Retry-After}; a stream is only
+ * retried while no content has been relayed. Consecutive upstream failures open a
+ * circuit breaker, after which calls fail fast until a trial call succeeds.
+ * <p>
+ * Every attempt first reserves a request and its estimated tokens from a global
+ * {@code hopl.openai.budget} and is delayed until they are available, so bursts are
+ * smoothed to the provider's rate limits instead of being rejected by them.
+ * <p>
+ * Point {@code hopl.openai.base-url} at a local server to run against a stub.
+ */
+@Component
+public class LlmClient {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmClient.class);
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 500, 502, 503, 504);
+    private static final double TEMPERATURE = 0.3;
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final String apiKey;
+    private final String model;
+    private final URI completionsUri;
+    private final int maxTokens;
+    private final Duration timeout;
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final CircuitBreaker circuitBreaker;
+    private final RateBudget budget;
+    private final MeterRegistry meterRegistry;
+    private final Timer firstChunkTimer;
+    private final Timer budgetWaitTimer;
+    private final Counter promptTokens;
+    private final Counter completionTokens;
+
+    public LlmClient(@Value("${hopl.openai.api-key:demo}") String apiKey,
+                     @Value("${hopl.openai.model:gpt-4o-mini}") String model,
+                     @Value("${hopl.openai.base-url:https://api.openai.com/v1}") String baseUrl,
+                     @Value("${hopl.openai.max-tokens:4000}") int maxTokens,
+                     @Value("${hopl.openai.connect-timeout-seconds:5}") int connectTimeoutSeconds,
+                     @Value("${hopl.openai.timeout-seconds:120}") int timeoutSeconds,
+                     @Value("${hopl.openai.retry.max-attempts:3}") int maxAttempts,
+                     @Value("${hopl.openai.retry.initial-backoff-ms:500}") long initialBackoffMillis,
+                     @Value("${hopl.openai.retry.max-backoff-seconds:30}") int maxBackoffSeconds,
+                     @Value("${hopl.openai.circuit-breaker.failure-threshold:5}") int failureThreshold,
+                     @Value("${hopl.openai.circuit-breaker.open-seconds:30}") int openSeconds,
+                     @Value("${hopl.openai.budget.requests-per-minute:500}") int requestsPerMinute,
+                     @Value("${hopl.openai.budget.tokens-per-minute:200000}") int tokensPerMinute,
+                     ObjectMapper objectMapper,
+                     WorkerThreads workerThreads,
+                     MeterRegistry meterRegistry) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds));
+        if (workerThreads.isVirtual()) {
+            // Stream chunks are relayed to clients from these threads, with blocking writes
+            builder.executor(Executors.newThreadPerTaskExecutor(workerThreads.factory("llm-")));
+        }
+        this.client = builder.build();
+        this.objectMapper = objectMapper;
+        this.apiKey = apiKey;
+        this.model = model;
+        this.completionsUri = URI.create(baseUrl.replaceAll("/+$", "") + "/chat/completions");
+        this.maxTokens = maxTokens;
+        this.timeout = Duration.ofSeconds(timeoutSeconds);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMillis = initialBackoffMillis;
+        this.maxBackoffMillis = TimeUnit.SECONDS.toMillis(maxBackoffSeconds);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, TimeUnit.SECONDS.toMillis(openSeconds));
+        this.budget = new RateBudget(requestsPerMinute, tokensPerMinute);
+        this.meterRegistry = meterRegistry;
+        this.firstChunkTimer = Timer.builder("hopl.llm.first-chunk")
+                .description("Time from starting a streamed completion to its first content")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.budgetWaitTimer = Timer.builder("hopl.llm.budget.wait")
+                .description("Time LLM calls were delayed to stay within the rate budget")
+                .register(meterRegistry);
+        this.promptTokens = Counter.builder("hopl.llm.tokens").tag("type", "prompt")
+                .description("Tokens reported by the LLM backend").register(meterRegistry);
+        this.completionTokens = Counter.builder("hopl.llm.tokens").tag("type", "completion")
+                .description("Tokens reported by the LLM backend").register(meterRegistry);
+        Gauge.builder("hopl.llm.circuit.state", circuitBreaker, cb -> cb.getState().ordinal())
+                .description("LLM circuit breaker state: 0 closed, 1 open, 2 half open")
+                .register(meterRegistry);
+    }
+
+    /** Returns true when no API key is configured and callers should serve demo content. */
+    public boolean isDemo() {
+        return "demo".equals(apiKey);
+    }
+
+    /**
+     * Returns a SHA-256 over everything that determines a completion: model, sampling
+     * parameters and messages. Requests with the same hash are interchangeable.
+     *
+     * @param system the system message
+     * @param prompt the user message
+     * @return lowercase hex digest
+     */
+    public String requestHash(String system, String prompt) {
+        String canonical = String.join("\u0000", model, Double.toString(TEMPERATURE),
+                Integer.toString(maxTokens), system, prompt);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Runs a chat completion and waits for the whole response.
+     *
+     * @param system the system message
+     * @param prompt the user message
+     * @return the completion
+     * @throws ApiException if the upstream is unavailable, rate limited or timed out
+     */
+    public Completion complete(String system, String prompt) {
+        CompletableFuture<Completion> call = execute("complete", estimateTokens(system, prompt),
+                () -> completeAttempt(system, prompt));
+        try {
+            return call.get();
+        } catch (InterruptedException e) {
+            call.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ApiException("Document generation was interrupted.", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : new CompletionException(e.getCause());
+        }
+    }
+
+    /**
+     * Runs a streamed chat completion, passing content to the caller as it arrives.
+     *
+     * @param system the system message
+     * @param prompt the user message
+     * @param onChunk receives each piece of content in order; throwing aborts the call
+     * @return the full completion, or a failure carrying an {@link ApiException}
+     *         for upstream errors or whatever {@code onChunk} threw
+     */
+    public CompletableFuture<Completion> stream(String system, String prompt, Consumer<String> onChunk) {
+        long start = System.nanoTime();
+        boolean[] first = {true};
+        Consumer<String> timed = chunk -> {
+            if (first[0]) {
+                first[0] = false;
+                firstChunkTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+            onChunk.accept(chunk);
+        };
+        return execute("stream", estimateTokens(system, prompt), () -> streamAttempt(system, prompt, timed));
+    }
+
+    /** Upper bound on the tokens a call uses, at roughly four characters per prompt token. */
+    private long estimateTokens(String system, String prompt) {
+        return (system.length() + prompt.length()) / 4 + maxTokens;
+    }
+
+    private Attempt<Completion> completeAttempt(String system, String prompt) {
+        AtomicReference<Usage> usage = new AtomicReference<>(Usage.NONE);
+        CompletableFuture<HttpResponse<byte[]>> response =
+                client.sendAsync(request(system, prompt, false), HttpResponse.BodyHandlers.ofByteArray());
+        CompletableFuture<Completion> content = response.thenCompose(r -> {
+            if (r.statusCode() / 100 != 2) {
+                return CompletableFuture.failedFuture(new StatusException(r.statusCode(), retryAfterMillis(r.headers())));
+            }
+            try {
+                JsonNode root = objectMapper.readTree(r.body());
+                usage.set(recordUsage(root.path("usage")));
+                return CompletableFuture.completedFuture(new Completion(
+                        root.path("choices").path(0).path("message").path("content").asText(),
+                        promptTokens(usage.get(), system, prompt)));
+            } catch (IOException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        });
+        return new Attempt<>(content, () -> true, () -> response.cancel(true), () -> usage.get().total());
+    }
+
+    private Attempt<Completion> streamAttempt(String system, String prompt, Consumer<String> onChunk) {
+        CompletionStream completion = new CompletionStream(onChunk, system, prompt);
+        client.sendAsync(request(system, prompt, true), info -> {
+                    if (info.statusCode() / 100 == 2) {
+                        return HttpResponse.BodySubscribers.fromLineSubscriber(completion);
+                    }
+                    completion.fail(new StatusException(info.statusCode(), retryAfterMillis(info.headers())));
+                    return HttpResponse.BodySubscribers.discarding();
+                })
+                .whenComplete((response, error) -> {
+                    if (error != null) completion.fail(unwrap(error));
+                });
+        return new Attempt<>(completion.result(), () -> !completion.delivered(), completion::cancel,
+                () -> completion.usage().total());
+    }
+
+    private HttpRequest request(String system, String prompt, boolean stream) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", model);
+        body.put("messages", List.of(
+                Map.of("role", "system", "content", system),
+                Map.of("role", "user", "content", prompt)
+        ));
+        body.put("temperature", TEMPERATURE);
+        body.put("max_tokens", maxTokens);
+        if (stream) {
+            body.put("stream", true);
+            body.put("stream_options", Map.of("include_usage", true));
+        }
+        try {
+            return HttpRequest.newBuilder(completionsUri)
+                    .timeout(timeout)
+                    .header("Content-Type", "application/json")
+                    .header("Accept", stream ? "text/event-stream" : "application/json")
+                    .header("Authorization", "Bearer " + apiKey)
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not serialize completion request", e);
+        }
+    }
+
+    /** Runs attempts until one succeeds, the failure is not retryable, or attempts run out. */
+    private <T> CompletableFuture<T> execute(String mode, long estimatedTokens, Supplier<Attempt<T>> attempts) {
+        CompletableFuture<T> outcome = new CompletableFuture<>();
+        attempt(mode, estimatedTokens, attempts, 1, System.nanoTime(), outcome);
+        return outcome;
+    }
+
+    private <T> void attempt(String mode, long estimatedTokens, Supplier<Attempt<T>> attempts, int number, long start,
+                             CompletableFuture<T> outcome) {
+        if (outcome.isDone()) {
+            return;
+        }
+        long wait = budget.reserve(estimatedTokens);
+        budgetWaitTimer.record(wait, TimeUnit.NANOSECONDS);
+        if (wait > 0) {
+            CompletableFuture.delayedExecutor(wait, TimeUnit.NANOSECONDS)
+                    .execute(() -> launch(mode, estimatedTokens, attempts, number, start, outcome));
+        } else {
+            launch(mode, estimatedTokens, attempts, number, start, outcome);
+        }
+    }
+
+    private <T> void launch(String mode, long estimatedTokens, Supplier<Attempt<T>> attempts, int number, long start,
+                            CompletableFuture<T> outcome) {
+        if (outcome.isDone()) {
+            budget.refund(estimatedTokens);
+            return;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            budget.refund(estimatedTokens);
+            record(mode, "rejected", start);
+            outcome.completeExceptionally(new ApiException(
+                    "Document generation is temporarily unavailable. Please try again shortly.",
+                    HttpStatus.SERVICE_UNAVAILABLE));
+            return;
+        }
+        Attempt<T> attempt;
+        try {
+            attempt = attempts.get();
+        } catch (RuntimeException e) {
+            circuitBreaker.onIgnored();
+            budget.refund(estimatedTokens);
+            outcome.completeExceptionally(e);
+            return;
+        }
+        // Cancelling the outcome, e.g. when the caller gives up, aborts the exchange
+        outcome.whenComplete((value, error) -> {
+            if (error != null) attempt.cancel().run();
+        });
+        attempt.result().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS).whenComplete((value, error) -> {
+            long used = attempt.usedTokens().getAsLong();
+            budget.refund(used > 0 ? estimatedTokens - used : error != null ? estimatedTokens : 0);
+            if (error == null) {
+                circuitBreaker.onSuccess();
+                record(mode, "success", start);
+                outcome.complete(value);
+                return;
+            }
+            attempt.cancel().run();
+            if (outcome.isCancelled()) {
+                // The caller aborted the exchange; that says nothing about the upstream
+                circuitBreaker.onIgnored();
+                record(mode, "cancelled", start);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            if (isUpstreamFailure(cause)) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onIgnored();
+            }
+            long delay = number < maxAttempts && attempt.restartable().getAsBoolean() ? retryDelay(cause, number) : -1;
+            if (delay >= 0 && !outcome.isDone()) {
+                log.warn("LLM {} attempt {} failed ({}), retrying in {} ms", mode, number, describe(cause), delay);
+                CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS)
+                        .execute(() -> attempt(mode, estimatedTokens, attempts, number + 1, start, outcome));
+                return;
+            }
+            record(mode, "error", start);
+            if (!(cause instanceof RuntimeException)) {
+                log.error("LLM {} call failed after {} attempt(s): {}", mode, number, describe(cause));
+            }
+            outcome.completeExceptionally(toApiException(cause));
+        });
+    }
+
+    /** Server errors, timeouts and connection failures count against the circuit; client errors and 429 do not. */
+    private static boolean isUpstreamFailure(Throwable cause) {
+        if (cause instanceof StatusException se) {
+            return se.status >= 500;
+        }
+        return cause instanceof IOException || cause instanceof TimeoutException;
+    }
+
+    /** Returns the delay before retrying, or -1 if the failure should not be retried. */
+    private long retryDelay(Throwable cause, int attempt) {
+        long retryAfter = 0;
+        if (cause instanceof StatusException se) {
+            if (!RETRYABLE_STATUSES.contains(se.status) || se.retryAfterMillis > maxBackoffMillis) {
+                return -1;
+            }
+            retryAfter = se.retryAfterMillis;
+        } else if (!(cause instanceof IOException)) {
+            // Includes the per-attempt timeout, which has already used up the caller's patience
+            return -1;
+        }
+        long ceiling = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+        long backoff = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        return Math.max(retryAfter, backoff);
+    }
+
+    private static RuntimeException toApiException(Throwable cause) {
+        if (cause instanceof StatusException se && se.status == 429) {
+            return new ApiException("The AI service is busy. Please try again shortly.", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        if (cause instanceof TimeoutException || cause instanceof HttpTimeoutException) {
+            return new ApiException("The AI service timed out. Please try again.", HttpStatus.GATEWAY_TIMEOUT);
+        }
+        if (cause instanceof RuntimeException re) {
+            return re;
+        }
+        return new ApiException("Failed to generate document. Please try again.", HttpStatus.BAD_GATEWAY);
+    }
+
+    /**
+     * Parses {@code Retry-After} as delta seconds or an HTTP date.
+     *
+     * @return the requested delay in milliseconds, or 0 if absent or unparseable
+     */
+    static long retryAfterMillis(HttpHeaders headers) {
+        String value = headers.firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank()) {
+            return 0;
+        }
+        value = value.trim();
+        try {
+            return Math.max(0, (long) (Double.parseDouble(value) * 1000));
+        } catch (NumberFormatException e) {
+            try {
+                ZonedDateTime at = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+                return Math.max(0, Duration.between(ZonedDateTime.now(at.getZone()), at).toMillis());
+            } catch (DateTimeParseException ignored) {
+                return 0;
+            }
+        }
+    }
+
+    private void record(String mode, String outcome, long start) {
+        Timer.builder("hopl.llm.call")
+                .description("Latency of LLM calls, including retries")
+                .tag("mode", mode)
+                .tag("outcome", outcome)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    /** Counts reported token usage and returns it, or {@link Usage#NONE} if none was reported. */
+    private Usage recordUsage(JsonNode usage) {
+        if (!usage.isObject()) {
+            return Usage.NONE;
+        }
+        long prompt = usage.path("prompt_tokens").asLong();
+        long completion = usage.path("completion_tokens").asLong();
+        promptTokens.increment(prompt);
+        completionTokens.increment(completion);
+        return new Usage(prompt, completion);
+    }
+
+    /** Returns the reported prompt tokens, or an estimate of four characters per token if none were reported. */
+    private static long promptTokens(Usage usage, String system, String prompt) {
+        return usage.prompt() > 0 ? usage.prompt() : (system.length() + prompt.length()) / 4;
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        while (error instanceof CompletionException && error.getCause() != null) {
+            error = error.getCause();
+        }
+        return error;
+    }
+
+    private static String describe(Throwable cause) {
+        return cause instanceof StatusException se ? "HTTP " + se.status : cause.toString();
+    }
+
+    /**
+     * A finished chat completion.
+     *
+     * @param text the completion text
+     * @param promptTokens tokens the prompt used, as reported by the backend or estimated if it did not say
+     */
+    public record Completion(String text, long promptTokens) {
+    }
+
+    /** Token usage reported for a call. */
+    private record Usage(long prompt, long completion) {
+        static final Usage NONE = new Usage(0, 0);
+
+        long total() {
+            return prompt + completion;
+        }
+    }
+
+    /**
+     * One try at a call.
+     *
+     * @param result completes with the call's value or failure
+     * @param restartable whether a failure may still be retried, checked after it happens
+     * @param cancel aborts the exchange
+     * @param usedTokens tokens the upstream reported using, 0 if unknown
+     */
+    private record Attempt<T>(CompletableFuture<T> result, BooleanSupplier restartable, Runnable cancel,
+                              LongSupplier usedTokens) {
+    }
+
+    /** An error status from the upstream. */
+    private static final class StatusException extends IOException {
+        private final int status;
+        private final long retryAfterMillis;
+
+        StatusException(int status, long retryAfterMillis) {
+            super("LLM backend returned HTTP " + status);
+            this.status = status;
+            this.retryAfterMillis = retryAfterMillis;
+        }
+    }
+
+    /**
+     * Reads a chat completion event stream line by line, passing each content delta on
+     * and collecting the full text. Completes on the {@code [DONE]} event or end of stream.
+     */
+    private final class CompletionStream implements Flow.Subscriber<String> {
+
+        private final Consumer<String> onChunk;
+        private final String system;
+        private final String prompt;
+        private final StringBuilder content = new StringBuilder();
+        private final CompletableFuture<Completion> result = new CompletableFuture<>();
+        private volatile Flow.Subscription subscription;
+        private volatile boolean delivered;
+        private volatile Usage usage = Usage.NONE;
+
+        CompletionStream(Consumer<String> onChunk, String system, String prompt) {
+            this.onChunk = onChunk;
+            this.system = system;
+            this.prompt = prompt;
+        }
+
+        CompletableFuture<Completion> result() {
+            return result;
+        }
+
+        boolean delivered() {
+            return delivered;
+        }
+
+        Usage usage() {
+            return usage;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (result.isDone()) {
+                subscription.cancel();
+            } else {
+                subscription.request(Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void onNext(String line) {
+            if (result.isDone() || !line.startsWith("data:")) {
+                return;
+            }
+            String data = line.substring(5).trim();
+            if ("[DONE]".equals(data)) {
+                finish();
+                return;
+            }
+            JsonNode event;
+            try {
+                event = objectMapper.readTree(data);
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            Usage used = recordUsage(event.path("usage"));
+            if (used.total() > 0) {
+                usage = used;
+            }
+            String delta = event.path("choices").path(0).path("delta").path("content").asText("");
+            if (!delta.isEmpty()) {
+                content.append(delta);
+                delivered = true;
+                try {
+                    onChunk.accept(delta);
+                } catch (RuntimeException e) {
+                    fail(e);
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            finish();
+        }
+
+        void fail(Throwable error) {
+            if (result.completeExceptionally(error)) {
+                cancel();
+            }
+        }
+
+        void cancel() {
+            Flow.Subscription s = subscription;
+            if (s != null) {
+                s.cancel();
+            }
+        }
+
+        private void finish() {
+            if (content.isEmpty()) {
+                fail(new IOException("LLM backend returned an empty completion"));
+            } else {
+                result.complete(new Completion(content.toString(), promptTokens(usage, system, prompt)));
+            }
+        }
+    }
+}
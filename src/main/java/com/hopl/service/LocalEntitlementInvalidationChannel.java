@@ -0,0 +1,25 @@
+package com.hopl.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/** Delivers invalidations to the listeners of this process only. */
+@Component
+@ConditionalOnProperty(name = "hopl.entitlements.invalidation", havingValue = "local", matchIfMissing = true)
+public class LocalEntitlementInvalidationChannel implements EntitlementInvalidationChannel {
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(String origin, Long userId) {
+        listeners.forEach(listener -> listener.invalidated(origin, userId));
+    }
+
+    @Override
+    public void subscribe(Listener listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,363 @@
+package com.hopl.service;
+
+import com.lowagie.text.Chunk;
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Font;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.Rectangle;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.draw.LineSeparator;
+
+import java.awt.Color;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Renders the Markdown the generator produces into an OpenPDF {@link Document}, one line
+ * at a time. Only the block being assembled is held: consecutive text lines of a
+ * paragraph, or the rows of a table. Supports ATX headings, paragraphs, bullet and
+ * numbered lists with nesting, block quotes, pipe tables, horizontal rules and inline
+ * bold, italic, code and links. Fonts are created once and shared by all renderers.
+ */
+final class MarkdownPdfRenderer {
+
+    private static final Color TEXT = new Color(75, 85, 99);
+    static final Font TITLE_FONT = new Font(Font.HELVETICA, 20, Font.BOLD, new Color(31, 41, 55));
+    static final Font HEADING_FONT = new Font(Font.HELVETICA, 14, Font.BOLD, new Color(55, 65, 81));
+    static final Font SUBHEADING_FONT = new Font(Font.HELVETICA, 12, Font.BOLD, TEXT);
+    static final Font SMALL_FONT = new Font(Font.HELVETICA, 9, Font.ITALIC, new Color(156, 163, 175));
+    private static final FontSet BODY = new FontSet(Font.HELVETICA, 11, TEXT);
+    private static final FontSet TABLE = new FontSet(Font.HELVETICA, 10, TEXT);
+    private static final Font CODE_FONT = new Font(Font.COURIER, 10, Font.NORMAL, new Color(31, 41, 55));
+    private static final Color TABLE_HEADER_BACKGROUND = new Color(243, 244, 246);
+    private static final Color TABLE_BORDER = new Color(209, 213, 219);
+    private static final float LIST_INDENT = 18;
+
+    private final Document document;
+    private final StringBuilder paragraph = new StringBuilder();
+    private final List<String[]> tableRows = new ArrayList<>();
+    private boolean quote;
+
+    MarkdownPdfRenderer(Document document) {
+        this.document = document;
+    }
+
+    /**
+     * Renders Markdown into the document.
+     *
+     * @param markdown the content
+     * @throws DocumentException if OpenPDF rejects an element
+     */
+    void render(CharSequence markdown) throws DocumentException {
+        int length = markdown.length();
+        int start = 0;
+        while (start < length) {
+            int end = start;
+            while (end < length && markdown.charAt(end) != '\n') {
+                end++;
+            }
+            int lineEnd = end > start && markdown.charAt(end - 1) == '\r' ? end - 1 : end;
+            line(markdown.subSequence(start, lineEnd).toString());
+            start = end + 1;
+        }
+        flush();
+    }
+
+    private void line(String raw) throws DocumentException {
+        String line = raw.strip();
+        if (line.isEmpty()) {
+            flush();
+            return;
+        }
+        if (line.startsWith("|")) {
+            flushParagraph();
+            if (!isTableSeparator(line)) {
+                tableRows.add(cells(line));
+            }
+            return;
+        }
+        flushTable();
+
+        int hashes = 0;
+        while (hashes < line.length() && line.charAt(hashes) == '#') {
+            hashes++;
+        }
+        if (hashes > 0 && hashes <= 6 && hashes < line.length() && line.charAt(hashes) == ' ') {
+            flushParagraph();
+            heading(hashes, line.substring(hashes + 1).strip());
+            return;
+        }
+        if (isRule(line)) {
+            flushParagraph();
+            document.add(new Chunk(new LineSeparator()));
+            return;
+        }
+        int indent = indentation(raw);
+        if (isBullet(line)) {
+            flushParagraph();
+            listItem("\u2022", line.substring(2).strip(), indent);
+            return;
+        }
+        int marker = orderedMarker(line);
+        if (marker > 0) {
+            flushParagraph();
+            listItem(line.substring(0, marker), line.substring(marker + 1).strip(), indent);
+            return;
+        }
+        boolean quoted = line.startsWith(">");
+        if (quoted) {
+            line = line.substring(1).strip();
+        }
+        if (quoted != quote) {
+            flushParagraph();
+            quote = quoted;
+        }
+        if (!paragraph.isEmpty()) {
+            paragraph.append(' ');
+        }
+        paragraph.append(line);
+    }
+
+    private void flush() throws DocumentException {
+        flushParagraph();
+        flushTable();
+    }
+
+    private void flushParagraph() throws DocumentException {
+        if (paragraph.isEmpty()) {
+            return;
+        }
+        Paragraph p = new Paragraph();
+        p.setLeading(16);
+        p.setSpacingAfter(6);
+        p.add(inline(paragraph.toString(), BODY, quote));
+        if (quote) {
+            p.setIndentationLeft(LIST_INDENT);
+        }
+        document.add(p);
+        paragraph.setLength(0);
+        quote = false;
+    }
+
+    private void heading(int level, String text) throws DocumentException {
+        Font font = level == 1 ? TITLE_FONT : level == 2 ? HEADING_FONT : SUBHEADING_FONT;
+        Paragraph h = new Paragraph(stripInline(text), font);
+        h.setSpacingBefore(level == 1 ? 15 : level == 2 ? 12 : 10);
+        h.setSpacingAfter(level == 1 ? 8 : level == 2 ? 6 : 5);
+        document.add(h);
+    }
+
+    private void listItem(String marker, String text, int indent) throws DocumentException {
+        float left = LIST_INDENT * (1 + indent / 2);
+        Paragraph item = new Paragraph();
+        item.setLeading(15);
+        item.setIndentationLeft(left + LIST_INDENT);
+        item.setFirstLineIndent(-LIST_INDENT);
+        item.setSpacingAfter(2);
+        item.add(new Chunk(marker + " ", BODY.regular));
+        item.add(inline(text, BODY, false));
+        document.add(item);
+    }
+
+    private void flushTable() throws DocumentException {
+        if (tableRows.isEmpty()) {
+            return;
+        }
+        int columns = 0;
+        for (String[] row : tableRows) {
+            columns = Math.max(columns, row.length);
+        }
+        PdfPTable table = new PdfPTable(columns);
+        table.setWidthPercentage(100);
+        table.setSpacingBefore(6);
+        table.setSpacingAfter(8);
+        table.setHeaderRows(tableRows.size() > 1 ? 1 : 0);
+        for (int r = 0; r < tableRows.size(); r++) {
+            String[] row = tableRows.get(r);
+            boolean header = r == 0 && tableRows.size() > 1;
+            for (int c = 0; c < columns; c++) {
+                String text = c < row.length ? row[c] : "";
+                PdfPCell cell = new PdfPCell(header ? new Phrase(stripInline(text), TABLE.bold) : inline(text, TABLE, false));
+                cell.setPadding(4);
+                cell.setBorderColor(TABLE_BORDER);
+                cell.setBorder(Rectangle.BOX);
+                if (header) {
+                    cell.setBackgroundColor(TABLE_HEADER_BACKGROUND);
+                }
+                table.addCell(cell);
+            }
+        }
+        document.add(table);
+        tableRows.clear();
+    }
+
+    /**
+     * Turns inline Markdown into chunks: {@code **bold**}, {@code *italic*} or
+     * {@code _italic_}, {@code `code`} and {@code [text](url)}. Markers without a closing
+     * counterpart are kept as text.
+     */
+    static Phrase inline(String text, FontSet fonts, boolean italic) {
+        Phrase phrase = new Phrase();
+        phrase.setLeading(fonts.regular.getSize() * 1.4f);
+        StringBuilder run = new StringBuilder();
+        boolean bold = false;
+        int i = 0;
+        int n = text.length();
+        while (i < n) {
+            char ch = text.charAt(i);
+            if (ch == '`') {
+                int close = text.indexOf('`', i + 1);
+                if (close > i) {
+                    emit(phrase, run, fonts.pick(bold, italic));
+                    phrase.add(new Chunk(text.substring(i + 1, close), CODE_FONT));
+                    i = close + 1;
+                    continue;
+                }
+            } else if ((ch == '*' || ch == '_') && i + 1 < n && text.charAt(i + 1) == ch) {
+                if (bold || text.indexOf(text.substring(i, i + 2), i + 2) > 0) {
+                    emit(phrase, run, fonts.pick(bold, italic));
+                    bold = !bold;
+                    i += 2;
+                    continue;
+                }
+            } else if ((ch == '*' || ch == '_') && isEmphasisMarker(text, i, italic)) {
+                emit(phrase, run, fonts.pick(bold, italic));
+                italic = !italic;
+                i++;
+                continue;
+            } else if (ch == '[') {
+                int closeText = text.indexOf("](", i + 1);
+                int closeUrl = closeText > 0 ? text.indexOf(')', closeText + 2) : -1;
+                if (closeUrl > 0) {
+                    emit(phrase, run, fonts.pick(bold, italic));
+                    Chunk link = new Chunk(text.substring(i + 1, closeText), fonts.pick(bold, italic));
+                    link.setAnchor(text.substring(closeText + 2, closeUrl));
+                    phrase.add(link);
+                    i = closeUrl + 1;
+                    continue;
+                }
+            }
+            run.append(ch);
+            i++;
+        }
+        emit(phrase, run, fonts.pick(bold, italic));
+        return phrase;
+    }
+
+    /** An opening marker must precede a word and have a closing one; underscores inside words are literal. */
+    private static boolean isEmphasisMarker(String text, int i, boolean open) {
+        char ch = text.charAt(i);
+        if (open) {
+            return i > 0 && !Character.isWhitespace(text.charAt(i - 1))
+                    && (ch == '*' || i + 1 == text.length() || !Character.isLetterOrDigit(text.charAt(i + 1)));
+        }
+        if (i + 1 >= text.length() || Character.isWhitespace(text.charAt(i + 1))) {
+            return false;
+        }
+        if (ch == '_' && i > 0 && Character.isLetterOrDigit(text.charAt(i - 1))) {
+            return false;
+        }
+        return text.indexOf(ch, i + 1) > 0;
+    }
+
+    private static void emit(Phrase phrase, StringBuilder run, Font font) {
+        if (!run.isEmpty()) {
+            phrase.add(new Chunk(run.toString(), font));
+            run.setLength(0);
+        }
+    }
+
+    /** Drops emphasis markers for text rendered in a fixed font, such as headings. */
+    private static String stripInline(String text) {
+        return text.indexOf('*') < 0 && text.indexOf('`') < 0 ? text
+                : text.replace("**", "").replace("`", "");
+    }
+
+    private static boolean isBullet(String line) {
+        char c = line.charAt(0);
+        return (c == '-' || c == '*' || c == '+') && line.length() > 1 && line.charAt(1) == ' ';
+    }
+
+    /** Returns the index of the {@code .} or {@code )} after a list number, or -1. */
+    private static int orderedMarker(String line) {
+        int i = 0;
+        while (i < line.length() && i < 9 && Character.isDigit(line.charAt(i))) {
+            i++;
+        }
+        if (i == 0 || i + 1 >= line.length()) {
+            return -1;
+        }
+        char c = line.charAt(i);
+        return (c == '.' || c == ')') && line.charAt(i + 1) == ' ' ? i : -1;
+    }
+
+    private static boolean isRule(String line) {
+        if (line.length() < 3) {
+            return false;
+        }
+        char c = line.charAt(0);
+        if (c != '-' && c != '*' && c != '_') {
+            return false;
+        }
+        for (int i = 1; i < line.length(); i++) {
+            char d = line.charAt(i);
+            if (d != c && d != ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indentation(String raw) {
+        int spaces = 0;
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            if (c == ' ') spaces++;
+            else if (c == '\t') spaces += 4;
+            else break;
+        }
+        return spaces;
+    }
+
+    private static boolean isTableSeparator(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c != '|' && c != '-' && c != ':' && c != ' ') {
+                return false;
+            }
+        }
+        return line.indexOf('-') >= 0;
+    }
+
+    private static String[] cells(String line) {
+        int from = 1;
+        int to = line.endsWith("|") && line.length() > 1 ? line.length() - 1 : line.length();
+        String[] cells = line.substring(from, to).split("\\|", -1);
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = cells[i].strip();
+        }
+        return cells;
+    }
+
+    /** The regular, bold, italic and bold italic variants of one font. */
+    static final class FontSet {
+        final Font regular;
+        final Font bold;
+        final Font italic;
+        final Font boldItalic;
+
+        FontSet(int family, float size, Color color) {
+            this.regular = new Font(family, size, Font.NORMAL, color);
+            this.bold = new Font(family, size, Font.BOLD, color);
+            this.italic = new Font(family, size, Font.ITALIC, color);
+            this.boldItalic = new Font(family, size, Font.BOLDITALIC, color);
+        }
+
+        Font pick(boolean bold, boolean italic) {
+            return bold ? (italic ? boldItalic : this.bold) : (italic ? this.italic : regular);
+        }
+    }
+}
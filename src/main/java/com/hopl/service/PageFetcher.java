@@ -0,0 +1,341 @@
+package com.hopl.service;
+
+import com.hopl.config.WorkerThreads;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.brotli.dec.BrotliInputStream;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Fetches pages for scanning over one shared {@link HttpClient}, so connections and
+ * HTTP/2 streams are reused across scans. Bodies are requested compressed, capped at
+ * {@code hopl.scan.fetch.max-body-size} both on the wire and after decoding, and
+ * handed to Jsoup as bytes so it can sniff the charset itself.
+ */
+@Component
+public class PageFetcher {
+
+    static final String USER_AGENT = "Mozilla/5.0 (compatible; HOPL Compliance Scanner/1.0)";
+
+    private static final Logger log = LoggerFactory.getLogger(PageFetcher.class);
+    private static final Pattern CHARSET = Pattern.compile("(?i)charset=\"?([^\\s;\"]+)");
+
+    private final HttpClient client;
+    private final Duration readTimeout;
+    private final int maxBodyBytes;
+    private final Timer fetchTimer;
+
+    public PageFetcher(@Value("${hopl.scan.fetch.connect-timeout-seconds:5}") int connectTimeoutSeconds,
+                       @Value("${hopl.scan.timeout-seconds:15}") int readTimeoutSeconds,
+                       @Value("${hopl.scan.fetch.max-body-size:5MB}") DataSize maxBodySize,
+                       WorkerThreads workerThreads,
+                       MeterRegistry meterRegistry) {
+        HttpClient.Builder builder = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds));
+        if (workerThreads.isVirtual()) {
+            builder.executor(Executors.newThreadPerTaskExecutor(workerThreads.factory("fetch-")));
+        }
+        this.client = builder.build();
+        this.readTimeout = Duration.ofSeconds(readTimeoutSeconds);
+        this.maxBodyBytes = (int) Math.min(maxBodySize.toBytes(), Integer.MAX_VALUE - 8);
+        this.fetchTimer = Timer.builder("hopl.scan.fetch")
+                .description("Time to fetch and decode a scanned page")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fetches a page, conditionally when validators from a previous fetch are given.
+     *
+     * @param url absolute URL to fetch
+     * @param etag previous ETag to send as If-None-Match, or null
+     * @param lastModified previous Last-Modified to send as If-Modified-Since, or null
+     * @return the fetched page; {@link Page#notModified()} is true for a 304
+     * @throws IOException on connection failure, timeout, HTTP error status or non-markup content
+     */
+    public Page fetch(String url, String etag, String lastModified) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(readTimeout)
+                .header("User-Agent", USER_AGENT)
+                .header("Accept", "text/html,application/xhtml+xml,application/xml;q=0.9,*/*;q=0.8")
+                .header("Accept-Encoding", "gzip, br, deflate")
+                .GET();
+        if (etag != null) request.header("If-None-Match", etag);
+        if (lastModified != null) request.header("If-Modified-Since", lastModified);
+
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<RawBody>> pending = client.sendAsync(request.build(), info ->
+                new CappedBody(isSuccess(info.statusCode()) ? maxBodyBytes : 0,
+                        info.headers().firstValueAsLong("Content-Length").orElse(-1)));
+        try {
+            // The request timeout only covers the wait for headers; this bounds the whole body
+            HttpResponse<RawBody> response = pending.get(readTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            int status = response.statusCode();
+            HttpHeaders headers = response.headers();
+            if (status == 304) {
+                return new Page(response.uri(), status, headers, new byte[0], false);
+            }
+            if (!isSuccess(status)) {
+                throw new StatusException("HTTP error fetching URL. Status=" + status, status);
+            }
+            String contentType = headers.firstValue("Content-Type").orElse(null);
+            if (!isMarkup(contentType)) {
+                throw new StatusException("Unhandled content type: " + contentType, status);
+            }
+            RawBody raw = response.body();
+            String encoding = headers.firstValue("Content-Encoding").orElse("identity");
+            Page page = decode(response.uri(), status, headers, raw, encoding);
+            if (page.truncated()) {
+                log.debug("Truncated {} at {} bytes", url, maxBodyBytes);
+            }
+            return page;
+        } catch (TimeoutException e) {
+            pending.cancel(true);
+            throw new HttpTimeoutException("Read timed out after " + readTimeout.toSeconds() + "s");
+        } catch (InterruptedException e) {
+            pending.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Fetch interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException(cause.getMessage(), cause);
+        } finally {
+            fetchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Checks that a URL resolves, without downloading its body. Sends HEAD and falls
+     * back to GET, aborted after the headers, when the server rejects HEAD with an error.
+     *
+     * @param url absolute URL to check
+     * @return final HTTP status after redirects
+     * @throws IOException on connection failure or timeout
+     */
+    public int probe(String url) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url))
+                .timeout(readTimeout)
+                .header("User-Agent", USER_AGENT);
+        int status = statusOf(request.copy().method("HEAD", HttpRequest.BodyPublishers.noBody()).build());
+        if (status >= 400) {
+            status = statusOf(request.GET().build());
+        }
+        return status;
+    }
+
+    private int statusOf(HttpRequest request) throws IOException {
+        CompletableFuture<HttpResponse<RawBody>> pending = client.sendAsync(request, info -> new CappedBody(0, 0));
+        try {
+            return pending.get(readTimeout.toMillis(), TimeUnit.MILLISECONDS).statusCode();
+        } catch (TimeoutException e) {
+            pending.cancel(true);
+            throw new HttpTimeoutException("Read timed out after " + readTimeout.toSeconds() + "s");
+        } catch (InterruptedException e) {
+            pending.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Probe interrupted");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof IOException io ? io : new IOException(cause.getMessage(), cause);
+        }
+    }
+
+    private Page decode(URI uri, int status, HttpHeaders headers, RawBody raw, String encoding) throws IOException {
+        String coding = encoding.trim().toLowerCase(Locale.ROOT);
+        if (coding.equals("identity") || coding.isEmpty()) {
+            return new Page(uri, status, headers, raw.bytes(), raw.truncated());
+        }
+        InputStream compressed = new ByteArrayInputStream(raw.bytes());
+        InputStream in = switch (coding) {
+            case "gzip", "x-gzip" -> new GZIPInputStream(compressed);
+            case "br" -> new BrotliInputStream(compressed);
+            case "deflate" -> new InflaterInputStream(compressed);
+            default -> throw new IOException("Unsupported content encoding: " + encoding);
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(maxBodyBytes, raw.bytes().length * 4));
+        byte[] buffer = new byte[8192];
+        boolean truncated = raw.truncated();
+        try (in) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                int room = maxBodyBytes - out.size();
+                out.write(buffer, 0, Math.min(n, room));
+                if (n > room) {
+                    truncated = true;
+                    break;
+                }
+            }
+        } catch (EOFException | RuntimeException e) {
+            // A body cut off on the wire ends mid-stream; keep what decoded
+            if (!raw.truncated()) {
+                throw new IOException("Corrupt " + coding + " body: " + e.getMessage(), e);
+            }
+        }
+        return new Page(uri, status, headers, out.toByteArray(), truncated);
+    }
+
+    private static boolean isSuccess(int status) {
+        return status >= 200 && status < 400;
+    }
+
+    private static boolean isMarkup(String contentType) {
+        if (contentType == null) return true;
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || type.contains("xml");
+    }
+
+    /**
+     * A fetched page. Headers are those of the final response after redirects.
+     */
+    public record Page(URI uri, int status, HttpHeaders headers, byte[] body, boolean truncated) {
+
+        /** @return true when the server answered 304 to a conditional request */
+        public boolean notModified() {
+            return status == 304;
+        }
+
+        /**
+         * @param name header name
+         * @return first value of the header, or null
+         */
+        public String header(String name) {
+            return headers.firstValue(name).orElse(null);
+        }
+
+        /**
+         * Parses the body, using the charset from Content-Type when valid and otherwise
+         * letting Jsoup detect it from a BOM or meta tag.
+         *
+         * @return the parsed document
+         * @throws IOException if the body cannot be decoded
+         */
+        public Document parse() throws IOException {
+            String charset = headers.firstValue("Content-Type")
+                    .map(CHARSET::matcher)
+                    .filter(Matcher::find)
+                    .map(m -> m.group(1))
+                    .filter(PageFetcher::isSupportedCharset)
+                    .orElse(null);
+            return Jsoup.parse(new ByteArrayInputStream(body), charset, uri.toString());
+        }
+    }
+
+    private static boolean isSupportedCharset(String name) {
+        try {
+            return Charset.isSupported(name);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Thrown when the server answered but the response cannot be scanned, either
+     * because of an error status or because the body is not markup.
+     */
+    public static class StatusException extends IOException {
+        private final int status;
+
+        public StatusException(String message, int status) {
+            super(message);
+            this.status = status;
+        }
+
+        public int getStatus() { return status; }
+    }
+
+    private record RawBody(byte[] bytes, boolean truncated) {
+    }
+
+    /**
+     * Buffers the response body up to a byte limit and cancels the exchange once the
+     * limit is passed, so an oversized page stops downloading instead of being drained.
+     */
+    private static final class CappedBody implements HttpResponse.BodySubscriber<RawBody> {
+
+        private final int limit;
+        private final ByteArrayOutputStream out;
+        private final CompletableFuture<RawBody> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        CappedBody(int limit, long contentLength) {
+            this.limit = limit;
+            this.out = new ByteArrayOutputStream((int) Math.min(limit, contentLength > 0 ? contentLength : 8192));
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> items) {
+            if (result.isDone()) {
+                return;
+            }
+            for (ByteBuffer item : items) {
+                int available = item.remaining();
+                int take = Math.min(available, limit - out.size());
+                byte[] chunk = new byte[take];
+                item.get(chunk);
+                out.write(chunk, 0, take);
+                if (take < available) {
+                    subscription.cancel();
+                    result.complete(new RawBody(out.toByteArray(), true));
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(new RawBody(out.toByteArray(), false));
+        }
+
+        @Override
+        public CompletableFuture<RawBody> getBody() {
+            return result;
+        }
+    }
+}
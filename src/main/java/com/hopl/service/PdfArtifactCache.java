@@ -0,0 +1,299 @@
+package com.hopl.service;
+
+import com.hopl.dto.document.GenerateDocResponseDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rendered PDFs stored on local disk under {@code hopl.pdf.cache.directory}, keyed by a
+ * hash of everything that goes into the PDF, so a document is rendered once and later
+ * downloads are plain file transfers. Files beyond {@code hopl.pdf.cache.max-size} are
+ * evicted least recently used first, never the one just requested. Files left by a
+ * previous run are picked up again at startup, oldest first.
+ */
+@Component
+public class PdfArtifactCache {
+
+    private static final Logger log = LoggerFactory.getLogger(PdfArtifactCache.class);
+    private static final String SUFFIX = ".pdf";
+
+    private final PdfExportService pdfExportService;
+    private final Path directory;
+    private final long maxBytes;
+    /** File sizes by key, in access order; guards the fields below too. */
+    private final LinkedHashMap<String, Long> files = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    /** Open artifacts by key. */
+    private final Map<String, Integer> readers = new HashMap<>();
+    /** Keys evicted while open, deleted when their last reader closes. */
+    private final Set<String> evictedWhileOpen = new HashSet<>();
+    private final SingleFlight<String, Path> renders = new SingleFlight<>();
+
+    public PdfArtifactCache(PdfExportService pdfExportService,
+                            @Value("${hopl.pdf.cache.directory:./data/pdf-cache}") String directory,
+                            @Value("${hopl.pdf.cache.max-size:256MB}") DataSize maxSize,
+                            MeterRegistry meterRegistry) throws IOException {
+        this.pdfExportService = pdfExportService;
+        this.directory = Files.createDirectories(Path.of(directory));
+        this.maxBytes = maxSize.toBytes();
+        loadExisting();
+        Gauge.builder("hopl.pdf.cache.size", this, cache -> cache.totalBytes())
+                .description("Bytes of rendered PDFs kept on disk")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the entity tag of a document's PDF, without rendering it.
+     *
+     * @param document the document
+     * @return quoted entity tag
+     */
+    public String etag(GenerateDocResponseDto document) {
+        return "\"" + key(document) + "\"";
+    }
+
+    /**
+     * Opens the rendered PDF of a document, rendering it on first use. Concurrent
+     * requests for the same document share one rendering. The file stays on disk until
+     * the returned artifact is closed, even if it is evicted meanwhile.
+     *
+     * @param document the document
+     * @return the open PDF; the caller must close it
+     */
+    public Artifact open(GenerateDocResponseDto document) {
+        String key = key(document);
+        Path file = fileFor(key);
+        while (true) {
+            boolean pinned;
+            synchronized (files) {
+                pinned = files.get(key) != null;
+                if (pinned) {
+                    readers.merge(key, 1, Integer::sum);
+                }
+            }
+            if (!pinned) {
+                renders.run(key, () -> render(key, document));
+                continue;
+            }
+            try {
+                FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+                return new Artifact(key, channel, channel.size());
+            } catch (NoSuchFileException e) {
+                // Removed from disk behind the cache's back; forget it and render again
+                synchronized (files) {
+                    Long size = files.remove(key);
+                    totalBytes -= size != null ? size : 0;
+                }
+                release(key);
+            } catch (IOException e) {
+                release(key);
+                throw new UncheckedIOException("Failed to open cached PDF " + file, e);
+            }
+        }
+    }
+
+    private Path render(String key, GenerateDocResponseDto document) {
+        Path file = fileFor(key);
+        try {
+            Path temp = Files.createTempFile(directory, key, ".tmp");
+            try {
+                try (OutputStream out = Files.newOutputStream(temp)) {
+                    pdfExportService.exportToPdf(document.getTitle(), document.getContent(), document.getBusinessName(),
+                            document.getCreatedAt().toLocalDate(), out);
+                }
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            add(key, Files.size(file));
+            return file;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store PDF for document " + document.getId(), e);
+        }
+    }
+
+    /**
+     * Records a stored file as most recently used and evicts others until the cache fits.
+     * Evicted files still open for a download are deleted once their last reader closes.
+     */
+    private void add(String key, long size) {
+        List<String> evicted = new ArrayList<>();
+        synchronized (files) {
+            Long previous = files.put(key, size);
+            totalBytes += size - (previous != null ? previous : 0);
+            evictedWhileOpen.remove(key);
+            Iterator<Map.Entry<String, Long>> eldest = files.entrySet().iterator();
+            while (totalBytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Long> entry = eldest.next();
+                if (entry.getKey().equals(key)) {
+                    break;
+                }
+                totalBytes -= entry.getValue();
+                if (readers.containsKey(entry.getKey())) {
+                    evictedWhileOpen.add(entry.getKey());
+                } else {
+                    evicted.add(entry.getKey());
+                }
+                eldest.remove();
+            }
+        }
+        evicted.forEach(k -> delete(fileFor(k)));
+    }
+
+    private void release(String key) {
+        boolean deleteNow;
+        synchronized (files) {
+            Integer remaining = readers.merge(key, -1, Integer::sum);
+            if (remaining != null && remaining > 0) {
+                return;
+            }
+            readers.remove(key);
+            deleteNow = evictedWhileOpen.remove(key);
+        }
+        if (deleteNow) {
+            delete(fileFor(key));
+        }
+    }
+
+    private long totalBytes() {
+        synchronized (files) {
+            return totalBytes;
+        }
+    }
+
+    private void loadExisting() throws IOException {
+        List<Path> existing = new ArrayList<>();
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory)) {
+            for (Path entry : entries) {
+                if (entry.getFileName().toString().endsWith(SUFFIX)) {
+                    existing.add(entry);
+                } else {
+                    // Left behind by a render interrupted by shutdown
+                    delete(entry);
+                }
+            }
+        }
+        existing.sort((a, b) -> lastModified(a).compareTo(lastModified(b)));
+        for (Path file : existing) {
+            String name = file.getFileName().toString();
+            add(name.substring(0, name.length() - SUFFIX.length()), Files.size(file));
+        }
+        if (!existing.isEmpty()) {
+            log.info("Found {} cached PDFs in {}", existing.size(), directory);
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private Path fileFor(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete cached PDF {}: {}", file, e.getMessage());
+        }
+    }
+
+    /** Hashes the document ID with every input of the rendered PDF, including the layout version. */
+    private static String key(GenerateDocResponseDto document) {
+        String canonical = String.join("\u0000", String.valueOf(PdfExportService.LAYOUT_VERSION), String.valueOf(document.getId()), document.getTitle(),
+                document.getBusinessName(), document.getCreatedAt().toLocalDate().toString(), document.getContent());
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** A cached PDF opened for reading; closing it lets the file be evicted from disk. */
+    public final class Artifact implements Closeable {
+        private final String key;
+        private final FileChannel channel;
+        private final long size;
+        private boolean closed;
+
+        private Artifact(String key, FileChannel channel, long size) {
+            this.key = key;
+            this.channel = channel;
+            this.size = size;
+        }
+
+        /**
+         * @return file size in bytes
+         */
+        public long size() {
+            return size;
+        }
+
+        /**
+         * Returns a stream of the file's contents; closing it closes the artifact.
+         *
+         * @return the contents
+         */
+        public InputStream stream() {
+            return new FilterInputStream(Channels.newInputStream(channel)) {
+                @Override
+                public void close() throws IOException {
+                    Artifact.this.close();
+                }
+            };
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                channel.close();
+            } finally {
+                release(key);
+            }
+        }
+    }
+}
@@ -2,20 +2,26 @@ package com.hopl.service;
 
 import com.lowagie.text.*;
 import com.lowagie.text.Font;
+import com.lowagie.text.pdf.ColumnText;
+import com.lowagie.text.pdf.PdfContentByte;
+import com.lowagie.text.pdf.PdfPageEventHelper;
 import com.lowagie.text.pdf.PdfWriter;
 import org.springframework.stereotype.Service;
 
-import java.awt.*;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDate;
 
 @Service
 public class PdfExportService {
 
-    private static final Font TITLE_FONT = new Font(Font.HELVETICA, 20, Font.BOLD, new Color(31, 41, 55));
-    private static final Font HEADING_FONT = new Font(Font.HELVETICA, 14, Font.BOLD, new Color(55, 65, 81));
-    private static final Font BODY_FONT = new Font(Font.HELVETICA, 11, Font.NORMAL, new Color(75, 85, 99));
-    private static final Font SMALL_FONT = new Font(Font.HELVETICA, 9, Font.ITALIC, new Color(156, 163, 175));
+    /** Changes whenever the layout changes, so PDFs rendered by an older version are not reused. */
+    static final int LAYOUT_VERSION = 2;
+
+    private static final Font TITLE_FONT = MarkdownPdfRenderer.TITLE_FONT;
+    private static final Font SMALL_FONT = MarkdownPdfRenderer.SMALL_FONT;
 
     /**
      * Exports document content to a professional PDF.
@@ -26,9 +32,30 @@ public class PdfExportService {
      * @return PDF bytes
      */
     public byte[] exportToPdf(String title, String content, String businessName) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        exportToPdf(title, content, businessName, LocalDate.now(), baos);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Exports document content to a professional PDF, rendering the Markdown with
+     * {@link MarkdownPdfRenderer} and numbering every page in the footer. Each page is
+     * written to the stream as soon as it is laid out, so memory use does not grow with
+     * the document length. The stream is flushed but not closed.
+     *
+     * @param title document title
+     * @param content markdown/text content
+     * @param businessName the business name for the footer
+     * @param date date shown in the header
+     * @param out receives the PDF
+     * @throws UncheckedIOException if writing to the stream fails, e.g. because the client disconnected
+     */
+    public void exportToPdf(String title, String content, String businessName, LocalDate date, OutputStream out) {
+        try {
             Document document = new Document(PageSize.A4, 60, 60, 50, 50);
-            PdfWriter.getInstance(document, baos);
+            PdfWriter writer = PdfWriter.getInstance(document, out);
+            writer.setCloseStream(false);
+            writer.setPageEvent(new PageDecoration(title, businessName));
             document.open();
 
             Paragraph titlePara = new Paragraph(title, TITLE_FONT);
@@ -36,7 +63,7 @@ public class PdfExportService {
             document.add(titlePara);
 
             Paragraph meta = new Paragraph(
-                    "Generated for " + businessName + " | " + LocalDate.now() + " | HOPL Compliance Scanner",
+                    "Generated for " + businessName + " | " + date + " | HOPL Compliance Scanner",
                     SMALL_FONT);
             meta.setSpacingAfter(20);
             document.add(meta);
@@ -44,38 +71,7 @@ public class PdfExportService {
             document.add(new Chunk(new com.lowagie.text.pdf.draw.LineSeparator()));
             document.add(Chunk.NEWLINE);
 
-            String[] lines = content.split("\n");
-            for (String line : lines) {
-                String trimmed = line.trim();
-                if (trimmed.isEmpty()) {
-                    document.add(Chunk.NEWLINE);
-                } else if (trimmed.startsWith("# ")) {
-                    Paragraph h = new Paragraph(trimmed.substring(2), TITLE_FONT);
-                    h.setSpacingBefore(15);
-                    h.setSpacingAfter(8);
-                    document.add(h);
-                } else if (trimmed.startsWith("## ")) {
-                    Paragraph h = new Paragraph(trimmed.substring(3), HEADING_FONT);
-                    h.setSpacingBefore(12);
-                    h.setSpacingAfter(6);
-                    document.add(h);
-                } else if (trimmed.startsWith("### ")) {
-                    Font subheading = new Font(Font.HELVETICA, 12, Font.BOLD, new Color(75, 85, 99));
-                    Paragraph h = new Paragraph(trimmed.substring(4), subheading);
-                    h.setSpacingBefore(10);
-                    h.setSpacingAfter(5);
-                    document.add(h);
-                } else if (trimmed.startsWith("- ") || trimmed.startsWith("* ")) {
-                    Paragraph bullet = new Paragraph("  \u2022  " + trimmed.substring(2), BODY_FONT);
-                    bullet.setIndentationLeft(20);
-                    document.add(bullet);
-                } else {
-                    Paragraph p = new Paragraph(trimmed, BODY_FONT);
-                    p.setSpacingAfter(4);
-                    p.setLeading(16);
-                    document.add(p);
-                }
-            }
+            new MarkdownPdfRenderer(document).render(content);
 
             document.add(Chunk.NEWLINE);
             document.add(new Chunk(new com.lowagie.text.pdf.draw.LineSeparator()));
@@ -86,9 +82,39 @@ public class PdfExportService {
             document.add(footer);
 
             document.close();
-            return baos.toByteArray();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ExceptionConverter e) {
+            throw e.getException() instanceof IOException io ? new UncheckedIOException(io)
+                    : new RuntimeException("Failed to generate PDF", e);
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate PDF", e);
         }
     }
+
+    /** Draws the document title above and the business name and page number below every page but the first. */
+    private static final class PageDecoration extends PdfPageEventHelper {
+        private final Phrase header;
+        private final String businessName;
+
+        PageDecoration(String title, String businessName) {
+            this.header = new Phrase(title, SMALL_FONT);
+            this.businessName = businessName;
+        }
+
+        @Override
+        public void onEndPage(PdfWriter writer, Document document) {
+            PdfContentByte canvas = writer.getDirectContent();
+            int page = writer.getPageNumber();
+            if (page > 1) {
+                ColumnText.showTextAligned(canvas, Element.ALIGN_LEFT, header,
+                        document.left(), document.top() + 20, 0);
+            }
+            ColumnText.showTextAligned(canvas, Element.ALIGN_LEFT, new Phrase(businessName, SMALL_FONT),
+                    document.left(), document.bottom() - 25, 0);
+            ColumnText.showTextAligned(canvas, Element.ALIGN_RIGHT, new Phrase("Page " + page, SMALL_FONT),
+                    document.right(), document.bottom() - 25, 0);
+        }
+    }
 }
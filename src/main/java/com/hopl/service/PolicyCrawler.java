@@ -0,0 +1,165 @@
+package com.hopl.service;
+
+import com.hopl.service.rules.KeywordMatcher;
+import com.hopl.service.rules.PolicyCrawl;
+import com.hopl.service.rules.PolicyCrawl.LinkCheck;
+import com.hopl.service.rules.PolicyCrawl.LinkStatus;
+import com.hopl.service.rules.PolicyKind;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.http.HttpTimeoutException;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Follows the privacy, terms and cookie policy links of a landing page, breadth first.
+ * Each level is fetched concurrently; the first {@code max-pages} links are downloaded
+ * and scanned for content, the rest only probed. The crawl stops at {@code max-depth},
+ * after {@code max-links} links, or when the time budget runs out, in which case
+ * outstanding links are reported as unchecked rather than broken.
+ */
+@Service
+public class PolicyCrawler {
+
+    private static final Logger log = LoggerFactory.getLogger(PolicyCrawler.class);
+    private static final KeywordMatcher KEYWORDS = KeywordMatcher.DEFAULT;
+
+    private final PageFetcher pageFetcher;
+    private final ExecutorService crawlExecutor;
+
+    @Value("${hopl.scan.crawl.max-depth:2}")
+    private int maxDepth;
+
+    @Value("${hopl.scan.crawl.max-pages:6}")
+    private int maxPages;
+
+    @Value("${hopl.scan.crawl.max-links:20}")
+    private int maxLinks;
+
+    @Value("${hopl.scan.crawl.time-budget-seconds:10}")
+    private int timeBudgetSeconds;
+
+    public PolicyCrawler(PageFetcher pageFetcher,
+                         @Qualifier("crawlExecutor") ExecutorService crawlExecutor) {
+        this.pageFetcher = pageFetcher;
+        this.crawlExecutor = crawlExecutor;
+    }
+
+    /**
+     * Crawls the policy links reachable from a landing page.
+     *
+     * @param landing the parsed landing page, with its base URI set
+     * @param landingUrl the normalized landing page URL
+     * @return every link checked and the keyword hits of the policy pages fetched
+     */
+    public PolicyCrawl crawl(Document landing, String landingUrl) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeBudgetSeconds);
+        Set<String> seen = new HashSet<>();
+        seen.add(withoutFragment(landingUrl));
+        seen.add(withoutFragment(landing.location()));
+
+        List<LinkCheck> checks = new ArrayList<>();
+        Map<PolicyKind, Integer> pageHits = new EnumMap<>(PolicyKind.class);
+        int pagesLeft = maxPages;
+        List<Link> level = discover(landing, 1, seen, maxLinks);
+        while (!level.isEmpty()) {
+            List<Future<Visit>> visits = new ArrayList<>(level.size());
+            for (Link link : level) {
+                boolean analyze = pagesLeft-- > 0;
+                visits.add(crawlExecutor.submit(() -> visit(link, analyze)));
+            }
+            List<Link> next = new ArrayList<>();
+            for (int i = 0; i < level.size(); i++) {
+                Link link = level.get(i);
+                Visit visit = await(visits.get(i), deadline);
+                if (visit == null) {
+                    visits.forEach(f -> f.cancel(true));
+                    checks.add(new LinkCheck(link.url(), link.kind(), link.depth(), LinkStatus.UNCHECKED, 0, false));
+                    continue;
+                }
+                checks.add(visit.check());
+                if (visit.page() != null) {
+                    pageHits.merge(link.kind(), KEYWORDS.scan(visit.page().body().text()), (a, b) -> a | b);
+                    if (link.depth() < maxDepth) {
+                        next.addAll(discover(visit.page(), link.depth() + 1, seen,
+                                maxLinks - checks.size() - (level.size() - i - 1) - next.size()));
+                    }
+                }
+            }
+            level = System.nanoTime() < deadline ? next : List.of();
+        }
+        log.debug("Crawled {} policy links from {}", checks.size(), landingUrl);
+        return new PolicyCrawl(checks, pageHits);
+    }
+
+    private Visit visit(Link link, boolean analyze) {
+        try {
+            if (analyze) {
+                PageFetcher.Page page = pageFetcher.fetch(link.url(), null, null);
+                return new Visit(link.check(LinkStatus.OK, page.status(), true), page.parse());
+            }
+            int status = pageFetcher.probe(link.url());
+            return new Visit(link.check(status >= 400 ? LinkStatus.BROKEN : LinkStatus.OK, status, false), null);
+        } catch (PageFetcher.StatusException e) {
+            // An error status, or a reachable page that is not markup, such as a PDF policy
+            return new Visit(link.check(e.getStatus() >= 400 ? LinkStatus.BROKEN : LinkStatus.OK, e.getStatus(), false), null);
+        } catch (HttpTimeoutException | InterruptedIOException e) {
+            return new Visit(link.check(LinkStatus.UNCHECKED, 0, false), null);
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Policy link {} unreachable: {}", link.url(), e.getMessage());
+            return new Visit(link.check(LinkStatus.BROKEN, 0, false), null);
+        }
+    }
+
+    private static Visit await(Future<Visit> visit, long deadline) {
+        try {
+            return visit.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException | CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            log.warn("Policy link visit failed", e.getCause());
+            return null;
+        }
+    }
+
+    /** Collects unseen policy links of a page, up to the given number. */
+    private static List<Link> discover(Document page, int depth, Set<String> seen, int limit) {
+        List<Link> links = new ArrayList<>();
+        for (Element a : page.select("a[href]")) {
+            if (links.size() >= limit) break;
+            PolicyKind kind = PolicyKind.classify(KEYWORDS.scan(a.attr("href")), KEYWORDS.scan(a.text()));
+            if (kind == null) continue;
+            String url = withoutFragment(a.absUrl("href"));
+            if (!(url.startsWith("http://") || url.startsWith("https://"))) continue;
+            if (seen.add(url)) {
+                links.add(new Link(url, kind, depth));
+            }
+        }
+        return links;
+    }
+
+    private static String withoutFragment(String url) {
+        int hash = url.indexOf('#');
+        return hash < 0 ? url : url.substring(0, hash);
+    }
+
+    private record Link(String url, PolicyKind kind, int depth) {
+        LinkCheck check(LinkStatus status, int httpStatus, boolean analyzed) {
+            return new LinkCheck(url, kind, depth, status, httpStatus, analyzed);
+        }
+    }
+
+    private record Visit(LinkCheck check, Document page) {
+    }
+}
@@ -0,0 +1,105 @@
+package com.hopl.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A prompt template compiled into alternating literal and placeholder segments, so it
+ * can be rendered in one pass. Placeholders are written {@code {{name}}}; any other use
+ * of braces is kept as literal text.
+ */
+final class PromptTemplate {
+
+    private final String name;
+    /** Literal text before, between and after the placeholders; one longer than {@link #placeholders}. */
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private PromptTemplate(String name, String[] literals, String[] placeholders) {
+        this.name = name;
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /**
+     * Splits template source into segments.
+     *
+     * @param name template name, for error messages
+     * @param source template text
+     * @return the compiled template
+     */
+    static PromptTemplate compile(String name, String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int literalStart = 0;
+        int open = source.indexOf("{{");
+        while (open >= 0) {
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                break;
+            }
+            String placeholder = source.substring(open + 2, close);
+            if (isName(placeholder)) {
+                literals.add(source.substring(literalStart, open));
+                placeholders.add(placeholder);
+                literalStart = close + 2;
+                open = source.indexOf("{{", literalStart);
+            } else {
+                open = source.indexOf("{{", open + 1);
+            }
+        }
+        literals.add(source.substring(literalStart));
+        return new PromptTemplate(name, literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    private static boolean isName(String s) {
+        if (s.isEmpty() || !Character.isLetter(s.charAt(0))) {
+            return false;
+        }
+        for (int i = 1; i < s.length(); i++) {
+            if (!Character.isLetterOrDigit(s.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /** Returns the distinct placeholder names, in order of first use. */
+    Set<String> placeholderNames() {
+        return new LinkedHashSet<>(List.of(placeholders));
+    }
+
+    /**
+     * Renders the template into a builder sized for the exact result.
+     *
+     * @param values placeholder values; placeholders without a value render as empty
+     * @return the rendered prompt
+     */
+    String render(Map<String, String> values) {
+        String[] resolved = new String[placeholders.length];
+        int length = literalLength;
+        for (int i = 0; i < placeholders.length; i++) {
+            String value = values.get(placeholders[i]);
+            resolved[i] = value != null ? value : "";
+            length += resolved[i].length();
+        }
+        StringBuilder out = new StringBuilder(length);
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]).append(resolved[i]);
+        }
+        return out.append(literals[placeholders.length]).toString();
+    }
+}
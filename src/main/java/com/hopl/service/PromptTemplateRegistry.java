@@ -0,0 +1,207 @@
+package com.hopl.service;
+
+import com.hopl.model.enums.DocumentType;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prompt templates for every document type, loaded and compiled once at startup. A
+ * template is read from {@code hopl.prompts.directory} when one is configured and holds
+ * the file, otherwise from {@code prompts/} on the classpath, otherwise a generic
+ * template is used. Templates referring to unknown placeholders, or not naming the
+ * business, fail startup.
+ * <p>
+ * With {@code hopl.prompts.hot-reload} the directory is watched and changed templates
+ * are recompiled in place; an invalid edit is logged and the previous version kept.
+ */
+@Component
+public class PromptTemplateRegistry {
+
+    /** Placeholders a template may use; the generator supplies a value for each. */
+    public static final Set<String> PLACEHOLDERS = Set.of(
+            "businessName", "businessType", "websiteUrl", "jurisdiction", "date", "language", "additionalInfo",
+            "scanFindings");
+
+    private static final Set<String> REQUIRED = Set.of("businessName");
+    private static final Logger log = LoggerFactory.getLogger(PromptTemplateRegistry.class);
+
+    private final Path directory;
+    private volatile Map<DocumentType, PromptTemplate> templates;
+    private WatchService watcher;
+
+    public PromptTemplateRegistry(@Value("${hopl.prompts.directory:}") String directory,
+                                  @Value("${hopl.prompts.hot-reload:false}") boolean hotReload) throws IOException {
+        this.directory = directory.isBlank() ? null : Path.of(directory);
+        Map<DocumentType, PromptTemplate> loaded = new EnumMap<>(DocumentType.class);
+        List<String> problems = new ArrayList<>();
+        for (DocumentType type : DocumentType.values()) {
+            PromptTemplate template = load(type);
+            problems.addAll(validate(template));
+            loaded.put(type, template);
+        }
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid prompt templates: " + String.join("; ", problems));
+        }
+        this.templates = loaded;
+        log.info("Compiled {} prompt templates", loaded.size());
+
+        if (hotReload && this.directory != null) {
+            startWatching();
+        }
+    }
+
+    /**
+     * Renders the prompt for a document type.
+     *
+     * @param type the document type
+     * @param values placeholder values by name
+     * @return the rendered prompt
+     */
+    public String render(DocumentType type, Map<String, String> values) {
+        return templates.get(type).render(values);
+    }
+
+    /**
+     * Checks whether the current template for a document type uses a placeholder.
+     *
+     * @param type the document type
+     * @param placeholder placeholder name
+     * @return true if the template refers to it
+     */
+    public boolean uses(DocumentType type, String placeholder) {
+        return templates.get(type).placeholderNames().contains(placeholder);
+    }
+
+    private PromptTemplate load(DocumentType type) throws IOException {
+        String filename = filename(type);
+        if (directory != null) {
+            Path file = directory.resolve(filename);
+            if (Files.isRegularFile(file)) {
+                return PromptTemplate.compile(file.toString(), Files.readString(file));
+            }
+        }
+        ClassPathResource resource = new ClassPathResource("prompts/" + filename);
+        if (resource.exists()) {
+            try (InputStream in = resource.getInputStream()) {
+                return PromptTemplate.compile("prompts/" + filename, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        log.warn("Prompt template not found: {}. Using default.", filename);
+        return PromptTemplate.compile("default:" + type.name(), getDefaultPrompt(type));
+    }
+
+    private static List<String> validate(PromptTemplate template) {
+        List<String> problems = new ArrayList<>();
+        Set<String> used = template.placeholderNames();
+        for (String name : used) {
+            if (!PLACEHOLDERS.contains(name)) {
+                problems.add(template.getName() + " uses unknown placeholder {{" + name + "}}");
+            }
+        }
+        for (String name : REQUIRED) {
+            if (!used.contains(name)) {
+                problems.add(template.getName() + " is missing placeholder {{" + name + "}}");
+            }
+        }
+        return problems;
+    }
+
+    private static String filename(DocumentType type) {
+        return type.name().toLowerCase().replace("_", "-") + ".txt";
+    }
+
+    private static String getDefaultPrompt(DocumentType docType) {
+        return """
+                You are an expert legal document writer. Generate a professional %s for the following business:
+
+                Business Name: {{businessName}}
+                Business Type: {{businessType}}
+                Website: {{websiteUrl}}
+                Jurisdiction: {{jurisdiction}}
+                Date: {{date}}
+                Additional info: {{additionalInfo}}{{scanFindings}}
+
+                Write the document in {{language}}. Use proper legal formatting with numbered sections and subsections.
+                Include all standard clauses required by applicable regulations.
+                The document should be comprehensive, professional, and ready to use.
+                Do NOT include any AI disclaimers or notes - output ONLY the document content.
+                """.formatted(docType.getDisplayName());
+    }
+
+    private void startWatching() throws IOException {
+        watcher = directory.getFileSystem().newWatchService();
+        directory.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+        Thread thread = new Thread(this::watch, "prompt-reload");
+        thread.setDaemon(true);
+        thread.start();
+        log.info("Watching {} for prompt template changes", directory);
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watcher.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.context() instanceof Path changed) {
+                        reload(changed.getFileName().toString());
+                    }
+                }
+                if (!key.reset()) {
+                    log.warn("Prompt directory {} is no longer accessible; hot reload stopped", directory);
+                    return;
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        }
+    }
+
+    private void reload(String filename) {
+        for (DocumentType type : DocumentType.values()) {
+            if (!filename(type).equals(filename)) continue;
+            try {
+                PromptTemplate template = load(type);
+                List<String> problems = validate(template);
+                if (!problems.isEmpty()) {
+                    log.error("Keeping previous {} template: {}", type, String.join("; ", problems));
+                    return;
+                }
+                Map<DocumentType, PromptTemplate> updated = new EnumMap<>(templates);
+                updated.put(type, template);
+                templates = updated;
+                log.info("Reloaded prompt template {}", template.getName());
+            } catch (IOException e) {
+                log.error("Keeping previous {} template: {}", type, e.getMessage());
+            }
+            return;
+        }
+    }
+
+    @PreDestroy
+    void stopWatching() throws IOException {
+        if (watcher != null) {
+            watcher.close();
+        }
+    }
+}
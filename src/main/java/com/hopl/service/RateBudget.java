@@ -0,0 +1,64 @@
+package com.hopl.service;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests-per-minute and tokens-per-minute budget shared by all calls to an upstream.
+ * Both are token buckets holding at most one minute's allowance. A caller reserves its
+ * share up front and is told how long to wait before starting; reservations may drive
+ * a bucket negative, which queues later callers behind earlier ones in arrival order.
+ * Unused tokens can be returned once the real usage is known.
+ */
+class RateBudget {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final double requestsPerMinute;
+    private final double tokensPerMinute;
+    private double requests;
+    private double tokens;
+    private long refilledAt;
+
+    RateBudget(int requestsPerMinute, int tokensPerMinute) {
+        this.requestsPerMinute = Math.max(1, requestsPerMinute);
+        this.tokensPerMinute = Math.max(1, tokensPerMinute);
+        this.requests = this.requestsPerMinute;
+        this.tokens = this.tokensPerMinute;
+        this.refilledAt = System.nanoTime();
+    }
+
+    /**
+     * Reserves one request and an estimated number of tokens.
+     *
+     * @param estimatedTokens tokens the call is expected to use at most
+     * @return nanoseconds to wait before making the call, 0 if it may start now
+     */
+    synchronized long reserve(long estimatedTokens) {
+        refill();
+        requests -= 1;
+        tokens -= estimatedTokens;
+        double requestWait = requests < 0 ? -requests / requestsPerMinute : 0;
+        double tokenWait = tokens < 0 ? -tokens / tokensPerMinute : 0;
+        return (long) (Math.max(requestWait, tokenWait) * MINUTE_NANOS);
+    }
+
+    /**
+     * Returns tokens reserved but not used.
+     *
+     * @param unusedTokens reserved tokens minus those actually used
+     */
+    synchronized void refund(long unusedTokens) {
+        if (unusedTokens > 0) {
+            refill();
+            tokens = Math.min(tokensPerMinute, tokens + unusedTokens);
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        double minutes = (double) (now - refilledAt) / MINUTE_NANOS;
+        refilledAt = now;
+        requests = Math.min(requestsPerMinute, requests + minutes * requestsPerMinute);
+        tokens = Math.min(tokensPerMinute, tokens + minutes * tokensPerMinute);
+    }
+}
@@ -0,0 +1,227 @@
+package com.hopl.service;
+
+import com.hopl.model.enums.PlanType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hourly request limits per client and endpoint. Each client has a token bucket holding
+ * an hour's allowance, stored as the single time at which it will be full again (the
+ * generic cell rate algorithm), so a request is one compare-and-set without locking.
+ * A request that fans out takes one token per unit of work, all at once or not at all.
+ * <p>
+ * Limits are read from {@code hopl.rate-limit.<endpoint>.<PLAN>}, falling back to
+ * {@code hopl.rate-limit.<endpoint>.default}; anonymous clients get the default. Scans
+ * default to {@code hopl.scan.rate-limit-per-hour}. A limit of 0 or less means unlimited.
+ * Buckets live in concurrent maps, one for anonymous clients and one for users. Once a
+ * minute, and whenever the anonymous map reaches {@code hopl.rate-limit.max-keys} clients,
+ * buckets that have refilled are dropped, since they hold nothing a new bucket would not.
+ * If the anonymous map is still full, new anonymous clients are rejected rather than
+ * letting them evict limited ones, so spraying addresses cannot grow memory or reset
+ * anyone's limit. Users are never subject to that cap; their number is bounded by accounts.
+ */
+@Component
+public class RateLimiter {
+
+    private static final long PERIOD_NANOS = TimeUnit.HOURS.toNanos(1);
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final boolean enabled;
+    private final Map<Endpoint, Limits> limits = new EnumMap<>(Endpoint.class);
+
+    public RateLimiter(Environment environment,
+                       @Value("${hopl.rate-limit.enabled:true}") boolean enabled,
+                       @Value("${hopl.rate-limit.max-keys:100000}") long maxKeys,
+                       MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        for (Endpoint endpoint : Endpoint.values()) {
+            limits.put(endpoint, new Limits(endpoint, environment, maxKeys, meterRegistry));
+        }
+    }
+
+    /**
+     * Takes requests from a client's bucket, all or none of them.
+     *
+     * @param endpoint the endpoint group being called
+     * @param plan the authenticated user's plan, or null for anonymous clients
+     * @param client identifies the client, e.g. {@code user:42}, {@code ip:203.0.113.7} or
+     *               {@code ip:2001:db8:0:1::/64}
+     * @param cost requests to take, e.g. one per URL of a batch
+     * @return the decision, or null if the client is not limited
+     */
+    public Decision tryAcquire(Endpoint endpoint, PlanType plan, String client, int cost) {
+        if (!enabled) {
+            return null;
+        }
+        Limits endpointLimits = limits.get(endpoint);
+        Policy policy = plan != null ? endpointLimits.plans.get(plan) : endpointLimits.anonymousPolicy;
+        if (policy == null) {
+            return null;
+        }
+        long now = System.nanoTime();
+        Buckets buckets = plan != null ? endpointLimits.users : endpointLimits.anonymous;
+        buckets.sweepIfDue(now);
+        AtomicLong fullAt = buckets.map.get(client);
+        if (fullAt == null) {
+            if (!buckets.hasRoom(now)) {
+                // Every tracked anonymous client is still limited; new ones wait rather than evict them
+                endpointLimits.rejected.increment();
+                return new Decision(false, policy.limit, 0, policy.interval, policy.interval);
+            }
+            fullAt = buckets.map.computeIfAbsent(client, key -> new AtomicLong(Long.MIN_VALUE));
+        }
+        while (true) {
+            long current = fullAt.get();
+            long backlog = Math.max(current, now) - now;
+            if (cost > policy.limit) {
+                // More than a full bucket holds; waiting will not help
+                endpointLimits.rejected.increment();
+                return new Decision(false, policy.limit, (PERIOD_NANOS - backlog) / policy.interval, backlog, -1);
+            }
+            long next = Math.max(current, now) + cost * policy.interval;
+            long untilFull = next - now;
+            if (untilFull > PERIOD_NANOS) {
+                endpointLimits.rejected.increment();
+                return new Decision(false, policy.limit, (PERIOD_NANOS - backlog) / policy.interval, backlog,
+                        untilFull - PERIOD_NANOS);
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return new Decision(true, policy.limit, (PERIOD_NANOS - untilFull) / policy.interval, untilFull, 0);
+            }
+        }
+    }
+
+    /** Endpoint groups with separate limits. */
+    public enum Endpoint {
+        SCAN("scan"),
+        GENERATION("generation");
+
+        private final String key;
+
+        Endpoint(String key) {
+            this.key = key;
+        }
+
+        public String getKey() {
+            return key;
+        }
+    }
+
+    /**
+     * Outcome of a request.
+     *
+     * @param allowed whether the request may proceed
+     * @param limit requests allowed per hour
+     * @param remaining requests left now
+     * @param resetNanos time until the bucket is full again
+     * @param retryAfterNanos time until a rejected request would be allowed, or negative if it
+     *                        costs more than the limit and never will be
+     */
+    public record Decision(boolean allowed, int limit, long remaining, long resetNanos, long retryAfterNanos) {
+
+        public long resetSeconds() {
+            return ceilSeconds(resetNanos);
+        }
+
+        public long retryAfterSeconds() {
+            return ceilSeconds(retryAfterNanos);
+        }
+
+        private static long ceilSeconds(long nanos) {
+            return nanos <= 0 ? 0 : (nanos + 999_999_999L) / 1_000_000_000L;
+        }
+    }
+
+    /** Requests per hour and the spacing between them. */
+    private record Policy(int limit, long interval) {
+
+        static Policy of(int perHour) {
+            return perHour > 0 ? new Policy(perHour, PERIOD_NANOS / perHour) : null;
+        }
+    }
+
+    private static final class Limits {
+        final Policy anonymousPolicy;
+        final Map<PlanType, Policy> plans = new EnumMap<>(PlanType.class);
+        /** Anonymous clients, capped so addresses cannot be sprayed without bound. */
+        final Buckets anonymous;
+        /** Authenticated users, kept apart so a full anonymous map never locks them out. */
+        final Buckets users;
+        final Counter rejected;
+
+        Limits(Endpoint endpoint, Environment environment, long maxKeys, MeterRegistry meterRegistry) {
+            String prefix = "hopl.rate-limit." + endpoint.getKey() + ".";
+            int fallback = endpoint == Endpoint.SCAN
+                    ? environment.getProperty("hopl.scan.rate-limit-per-hour", Integer.class, 5) : 10;
+            int perHour = environment.getProperty(prefix + "default", Integer.class, fallback);
+            this.anonymousPolicy = Policy.of(perHour);
+            for (PlanType plan : PlanType.values()) {
+                Policy policy = Policy.of(environment.getProperty(prefix + plan.name(), Integer.class, perHour));
+                if (policy != null) {
+                    plans.put(plan, policy);
+                }
+            }
+            this.anonymous = new Buckets(endpoint, "anonymous", maxKeys, meterRegistry);
+            this.users = new Buckets(endpoint, "user", Long.MAX_VALUE, meterRegistry);
+            this.rejected = Counter.builder("hopl.rate-limit.rejected")
+                    .description("Requests rejected by the rate limiter")
+                    .tag("endpoint", endpoint.getKey())
+                    .register(meterRegistry);
+        }
+    }
+
+    private static final class Buckets {
+        /** When each client's bucket is full again, by client. */
+        final ConcurrentHashMap<String, AtomicLong> map = new ConcurrentHashMap<>();
+        final long maxKeys;
+        private final AtomicLong nextSweep = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+        private final AtomicBoolean sweeping = new AtomicBoolean();
+
+        Buckets(Endpoint endpoint, String clients, long maxKeys, MeterRegistry meterRegistry) {
+            this.maxKeys = maxKeys;
+            Gauge.builder("hopl.rate-limit.clients", map, Map::size)
+                    .description("Clients with a partly used rate limit")
+                    .tag("endpoint", endpoint.getKey())
+                    .tag("clients", clients)
+                    .register(meterRegistry);
+        }
+
+        /** Whether another client can be tracked, dropping full buckets first if needed. */
+        boolean hasRoom(long now) {
+            if (map.size() < maxKeys) {
+                return true;
+            }
+            sweep(now);
+            return map.size() < maxKeys;
+        }
+
+        void sweepIfDue(long now) {
+            long due = nextSweep.get();
+            if (now - due >= 0 && nextSweep.compareAndSet(due, now + SWEEP_INTERVAL_NANOS)) {
+                sweep(now);
+            }
+        }
+
+        /** Drops buckets that have refilled; they hold nothing a new bucket would not. */
+        private void sweep(long now) {
+            if (sweeping.compareAndSet(false, true)) {
+                try {
+                    map.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+                } finally {
+                    sweeping.set(false);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.hopl.service;
+
+import com.hopl.dto.scan.ScanJobDto;
+import com.hopl.dto.scan.ScanResponseDto;
+import com.hopl.model.ScanJob;
+import com.hopl.model.enums.ScanJobStatus;
+import com.hopl.repository.ScanJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+
+@Service
+public class ScanJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ScanJobService.class);
+    private final ScanJobRepository scanJobRepository;
+    private final ScannerService scannerService;
+    private final ExecutorService scanExecutor;
+    private final ConcurrentHashMap<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    @Value("${hopl.scan.jobs.sse-timeout-seconds:120}")
+    private long sseTimeoutSeconds;
+
+    public ScanJobService(ScanJobRepository scanJobRepository,
+                          ScannerService scannerService,
+                          @Qualifier("scanExecutor") ExecutorService scanExecutor) {
+        this.scanJobRepository = scanJobRepository;
+        this.scannerService = scannerService;
+        this.scanExecutor = scanExecutor;
+    }
+
+    /**
+     * Persists a scan job and schedules it on the scan executor.
+     *
+     * @param url the website URL to scan
+     * @param userId optional user ID for tracking
+     * @return the pending job
+     */
+    public ScanJobDto submit(String url, Long userId) {
+        ScanJob job = new ScanJob();
+        job.setUrl(scannerService.normalizeUrl(url.trim()));
+        job.setUserId(userId);
+        ScanJob saved = scanJobRepository.save(job);
+        schedule(saved.getId());
+        return toDto(saved);
+    }
+
+    /** Retrieves a job with its result once completed. */
+    public Optional<ScanJobDto> getJob(Long jobId) {
+        return scanJobRepository.findById(jobId).map(this::toDto);
+    }
+
+    /**
+     * Subscribes to status events of a job. The emitter receives the current state
+     * immediately and completes once the job has finished.
+     *
+     * @param jobId job ID
+     * @return the emitter, or empty if the job does not exist
+     */
+    public Optional<SseEmitter> subscribe(Long jobId) {
+        Optional<ScanJobDto> current = getJob(jobId);
+        if (current.isEmpty()) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(sseTimeoutSeconds * 1000);
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        Runnable remove = () -> removeSubscriber(jobId, emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        // Re-read after registering so a transition in between is not missed.
+        ScanJobDto latest = getJob(jobId).orElse(current.get());
+        send(emitter, latest);
+        return Optional.of(emitter);
+    }
+
+    /** Re-schedules jobs left unfinished by a previous run of the application. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<ScanJob> unfinished = scanJobRepository.findByStatusInOrderByIdAsc(
+                EnumSet.of(ScanJobStatus.PENDING, ScanJobStatus.RUNNING));
+        if (!unfinished.isEmpty()) {
+            log.info("Resuming {} unfinished scan jobs", unfinished.size());
+        }
+        unfinished.forEach(job -> schedule(job.getId()));
+    }
+
+    private void schedule(Long jobId) {
+        scanExecutor.execute(() -> run(jobId));
+    }
+
+    private void run(Long jobId) {
+        ScanJob job = scanJobRepository.findById(jobId).orElse(null);
+        if (job == null || job.getStatus().isFinished()) {
+            return;
+        }
+        updateStatus(job, ScanJobStatus.RUNNING);
+        try {
+            ScanResponseDto result = scannerService.scan(job.getUrl(), job.getUserId());
+            job.setScanResultId(result.getId());
+            updateStatus(job, ScanJobStatus.COMPLETED);
+        } catch (RuntimeException e) {
+            job.setError(truncate(e.getMessage()));
+            updateStatus(job, ScanJobStatus.FAILED);
+        }
+    }
+
+    private void updateStatus(ScanJob job, ScanJobStatus status) {
+        job.setStatus(status);
+        job.setUpdatedAt(LocalDateTime.now());
+        ScanJob saved = scanJobRepository.save(job);
+        List<SseEmitter> emitters = subscribers.get(job.getId());
+        if (emitters != null) {
+            ScanJobDto dto = toDto(saved);
+            emitters.forEach(emitter -> send(emitter, dto));
+        }
+    }
+
+    private void send(SseEmitter emitter, ScanJobDto dto) {
+        try {
+            emitter.send(SseEmitter.event().name(dto.getStatus().toLowerCase()).data(dto));
+            if (ScanJobStatus.valueOf(dto.getStatus()).isFinished()) {
+                emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            emitter.completeWithError(e);
+        }
+    }
+
+    private void removeSubscriber(Long jobId, SseEmitter emitter) {
+        subscribers.computeIfPresent(jobId, (id, emitters) -> {
+            emitters.remove(emitter);
+            return emitters.isEmpty() ? null : emitters;
+        });
+    }
+
+    private ScanJobDto toDto(ScanJob job) {
+        ScanJobDto dto = new ScanJobDto();
+        dto.setId(job.getId());
+        dto.setUrl(job.getUrl());
+        dto.setStatus(job.getStatus().name());
+        dto.setError(job.getError());
+        dto.setCreatedAt(job.getCreatedAt());
+        if (job.getScanResultId() != null) {
+            scannerService.findResult(job.getScanResultId()).ifPresent(dto::setResult);
+        }
+        return dto;
+    }
+
+    private static String truncate(String message) {
+        if (message == null) return "Scan failed";
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,136 @@
+package com.hopl.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hopl.exception.ApiException;
+import com.hopl.model.ScanResult;
+import com.hopl.repository.ScanResultRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Condenses a stored scan into a short block for generation prompts, built from the
+ * saved issues and details so the site is not fetched again. The block starts on a new
+ * line and lists the failed check codes, then the findings, adding entries only while it
+ * stays within {@code hopl.generation.scan-context.max-tokens} (at about four characters
+ * per token).
+ */
+@Component
+public class ScanPromptContext {
+
+    private final ScanResultRepository scanResultRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxChars;
+
+    public ScanPromptContext(ScanResultRepository scanResultRepository,
+                             ObjectMapper objectMapper,
+                             @Value("${hopl.generation.scan-context.max-tokens:300}") int maxTokens) {
+        this.scanResultRepository = scanResultRepository;
+        this.objectMapper = objectMapper;
+        this.maxChars = maxTokens * 4;
+    }
+
+    /**
+     * Renders the prompt block for a scan.
+     *
+     * @param scanId the linked scan, may be null
+     * @param userId the requesting user's ID; scans of other users are not visible
+     * @return the block, or an empty string without a scan
+     * @throws ApiException 404 if the scan does not exist or belongs to someone else
+     */
+    public String render(Long scanId, Long userId) {
+        if (scanId == null) {
+            return "";
+        }
+        ScanResult scan = scanResultRepository.findById(scanId)
+                .filter(s -> s.getUserId() == null || s.getUserId().equals(userId))
+                .orElseThrow(() -> new ApiException("Scan not found: " + scanId, HttpStatus.NOT_FOUND));
+        try {
+            return format(scan, objectMapper.readTree(scan.getIssuesJson()),
+                    scan.getDetailsJson() != null ? objectMapper.readTree(scan.getDetailsJson()) : null);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read scan " + scanId, e);
+        }
+    }
+
+    private String format(ScanResult scan, JsonNode issues, JsonNode details) {
+        StringBuilder out = new StringBuilder(maxChars);
+        out.append("\nWebsite scan of ").append(scan.getUrl())
+                .append(" (score ").append(scan.getScore()).append("/100, jurisdiction ")
+                .append(scan.getJurisdiction()).append(")\n");
+
+        List<String> failed = new ArrayList<>();
+        for (JsonNode issue : issues) {
+            if (!issue.path("passed").asBoolean()) {
+                failed.add(issue.path("code").asText());
+            }
+        }
+        appendLine(out, "Failed checks: ", failed);
+
+        // Scalar findings first, as they are short and most specific; sorted so equal scans render equal prompts
+        Map<String, String> scalars = new TreeMap<>();
+        Map<String, String> lists = new TreeMap<>();
+        if (details != null) {
+            for (Iterator<Map.Entry<String, JsonNode>> it = details.fields(); it.hasNext(); ) {
+                Map.Entry<String, JsonNode> field = it.next();
+                JsonNode value = field.getValue();
+                if (value.isValueNode()) {
+                    scalars.put(field.getKey(), value.asText());
+                } else if (!value.isEmpty()) {
+                    lists.put(field.getKey(), compact(value));
+                }
+            }
+        }
+        List<String> findings = new ArrayList<>();
+        scalars.forEach((key, value) -> findings.add(key + "=" + value));
+        lists.forEach((key, value) -> findings.add(key + "=" + value));
+        appendLine(out, "Findings: ", findings);
+        return out.toString().stripTrailing();
+    }
+
+    /** Appends as many entries as fit the budget; omits the line if none do. */
+    private void appendLine(StringBuilder out, String label, List<String> entries) {
+        int start = out.length();
+        out.append(label);
+        int count = 0;
+        for (String entry : entries) {
+            int needed = entry.length() + (count > 0 ? 2 : 0) + 1;
+            if (out.length() + needed > maxChars) {
+                continue;
+            }
+            if (count++ > 0) {
+                out.append(", ");
+            }
+            out.append(entry);
+        }
+        if (count == 0) {
+            out.setLength(start);
+        } else {
+            out.append('\n');
+        }
+    }
+
+    /** Renders arrays as {@code [a,b]} and objects as their values joined by colons. */
+    private static String compact(JsonNode node) {
+        if (node.isValueNode()) {
+            return node.asText();
+        }
+        if (node.isArray()) {
+            StringJoiner joiner = new StringJoiner(",", "[", "]");
+            node.forEach(element -> joiner.add(compact(element)));
+            return joiner.toString();
+        }
+        StringJoiner joiner = new StringJoiner(":");
+        node.forEach(value -> joiner.add(compact(value)));
+        return joiner.toString();
+    }
+}
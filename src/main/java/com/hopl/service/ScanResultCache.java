@@ -0,0 +1,109 @@
+package com.hopl.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.hopl.dto.scan.ScanResponseDto;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * In-process cache of fully built scan responses keyed by normalized URL, prefixed with
+ * {@code crawl:} for crawl-mode scans. An entry expires when its underlying scan result
+ * falls out of {@code hopl.scan.cache-ttl-hours}, so a hit is always one the database
+ * lookup would also have returned.
+ */
+@Component
+public class ScanResultCache {
+
+    private final Cache<String, Entry> cache;
+    private final Duration ttl;
+
+    public ScanResultCache(@Value("${hopl.scan.cache-ttl-hours:24}") int cacheTtlHours,
+                           @Value("${hopl.scan.cache.max-size:16MB}") DataSize maxSize,
+                           MeterRegistry meterRegistry) {
+        this.ttl = Duration.ofHours(cacheTtlHours);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxSize.toBytes())
+                .weigher((String url, Entry entry) -> entry.weight())
+                .expireAfter(new Expiry<String, Entry>() {
+                    @Override
+                    public long expireAfterCreate(String url, Entry entry, long currentTime) {
+                        return remainingNanos(entry);
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String url, Entry entry, long currentTime, long currentDuration) {
+                        return remainingNanos(entry);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String url, Entry entry, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "scanResults");
+    }
+
+    /**
+     * Returns the cached response for a key.
+     *
+     * @param key the normalized URL, or its crawl key
+     * @return the cached response or null; the instance is shared and must not be modified
+     */
+    public ScanResponseDto get(String key) {
+        Entry entry = cache.getIfPresent(key);
+        return entry != null ? entry.response() : null;
+    }
+
+    /**
+     * Caches a response built from a scan result.
+     *
+     * @param key the normalized URL, or its crawl key
+     * @param response the built response
+     * @param scannedAt time the underlying scan result was last fetched or revalidated
+     */
+    public void put(String key, ScanResponseDto response, LocalDateTime scannedAt) {
+        Entry entry = new Entry(response, scannedAt);
+        if (remainingNanos(entry) > 0) {
+            cache.put(key, entry);
+        }
+    }
+
+    /** Drops the cached response for a key. */
+    public void evict(String key) {
+        cache.invalidate(key);
+    }
+
+    private long remainingNanos(Entry entry) {
+        Duration age = Duration.between(entry.scannedAt(), LocalDateTime.now());
+        return Math.max(0, ttl.minus(age).toNanos());
+    }
+
+    private record Entry(ScanResponseDto response, LocalDateTime scannedAt) {
+
+        /** Rough retained size in bytes, dominated by the issue texts. */
+        int weight() {
+            int weight = 256 + response.getUrl().length() * 2;
+            if (response.getIssues() != null) {
+                for (ScanResponseDto.IssueDto issue : response.getIssues()) {
+                    weight += 64 + (issue.getTitle().length() + issue.getDescription().length()) * 2;
+                }
+            }
+            if (response.getRecommendations() != null) {
+                for (String recommendation : response.getRecommendations()) {
+                    weight += 48 + recommendation.length() * 2;
+                }
+            }
+            return weight;
+        }
+    }
+}
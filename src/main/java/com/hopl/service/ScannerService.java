@@ -4,7 +4,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hopl.dto.scan.ScanResponseDto;
 import com.hopl.model.ScanResult;
 import com.hopl.repository.ScanResultRepository;
-import org.jsoup.Jsoup;
+import com.hopl.service.rules.PolicyCrawl;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
@@ -14,6 +14,9 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -24,43 +27,100 @@ public class ScannerService {
     private final ScanResultRepository scanResultRepository;
     private final ComplianceAnalyzer complianceAnalyzer;
     private final ObjectMapper objectMapper;
+    private final ScanResultCache scanResultCache;
+    private final PageFetcher pageFetcher;
+    private final PolicyCrawler policyCrawler;
+    private final SingleFlight<String, ScanResponseDto> inFlightScans = new SingleFlight<>();
 
     @Value("${hopl.scan.cache-ttl-hours:24}")
     private int cacheTtlHours;
 
-    @Value("${hopl.scan.timeout-seconds:15}")
-    private int timeoutSeconds;
-
     public ScannerService(ScanResultRepository scanResultRepository,
                           ComplianceAnalyzer complianceAnalyzer,
-                          ObjectMapper objectMapper) {
+                          ObjectMapper objectMapper,
+                          ScanResultCache scanResultCache,
+                          PageFetcher pageFetcher,
+                          PolicyCrawler policyCrawler) {
         this.scanResultRepository = scanResultRepository;
         this.complianceAnalyzer = complianceAnalyzer;
         this.objectMapper = objectMapper;
+        this.scanResultCache = scanResultCache;
+        this.pageFetcher = pageFetcher;
+        this.policyCrawler = policyCrawler;
     }
 
     /**
-     * Scans a URL for compliance issues. Returns cached result if available.
+     * Scans a URL for compliance issues. Returns cached result if available, checking
+     * the in-process cache before the database. Concurrent scans of the same URL share
+     * one fetch, analysis and insert. Expired results are revalidated with a conditional
+     * request and only re-analyzed when the page has changed.
      *
      * @param url the website URL to scan
      * @param userId optional user ID for tracking
      * @return scan response with score and issues
      */
     public ScanResponseDto scan(String url, Long userId) {
+        return scan(url, userId, false);
+    }
+
+    /**
+     * Scans a URL, optionally crawling its privacy, terms and cookie policy links to
+     * check for broken links and analyze the policies themselves. Crawl results are
+     * cached and stored separately from landing-page scans.
+     *
+     * @param url the website URL to scan
+     * @param userId optional user ID for tracking
+     * @param crawl whether to crawl policy links
+     * @return scan response with score and issues
+     */
+    public ScanResponseDto scan(String url, Long userId, boolean crawl) {
         String normalizedUrl = normalizeUrl(url);
+        String key = cacheKey(normalizedUrl, crawl);
+        ScanResponseDto hit = scanResultCache.get(key);
+        if (hit != null) {
+            return hit;
+        }
         LocalDateTime cacheThreshold = LocalDateTime.now().minusHours(cacheTtlHours);
         Optional<ScanResult> cached = scanResultRepository
-                .findFirstByUrlAndCreatedAtAfterOrderByCreatedAtDesc(normalizedUrl, cacheThreshold);
+                .findFirstByUrlAndCrawledAndCheckedAtAfterOrderByCheckedAtDesc(normalizedUrl, crawl, cacheThreshold);
         if (cached.isPresent()) {
-            return toResponse(cached.get());
+            return cacheResponse(cached.get());
         }
+        return inFlightScans.run(key, () -> fetchAndStore(normalizedUrl, userId, crawl));
+    }
+
+    private ScanResponseDto fetchAndStore(String normalizedUrl, Long userId, boolean crawl) {
+        // A scan that finished between our cache miss and joining the flight has already been cached
+        ScanResponseDto hit = scanResultCache.get(cacheKey(normalizedUrl, crawl));
+        if (hit != null) {
+            return hit;
+        }
+        Optional<ScanResult> previous = scanResultRepository.findFirstByUrlAndCrawledOrderByCheckedAtDesc(normalizedUrl, crawl);
+        // A crawl result also depends on the policy pages, so an unchanged landing page proves nothing
+        Optional<ScanResult> validators = crawl ? Optional.empty() : previous;
         try {
-            Document doc = Jsoup.connect(normalizedUrl)
-                    .userAgent("Mozilla/5.0 (compatible; HOPL Compliance Scanner/1.0)")
-                    .timeout(timeoutSeconds * 1000)
-                    .followRedirects(true)
-                    .get();
-            ComplianceAnalyzer.AnalysisResult analysis = complianceAnalyzer.analyze(doc, normalizedUrl);
+            PageFetcher.Page page = pageFetcher.fetch(normalizedUrl,
+                    validators.map(ScanResult::getEtag).orElse(null),
+                    validators.map(ScanResult::getLastModified).orElse(null));
+            if (page.notModified() && previous.isPresent()) {
+                return revalidate(previous.get(), page);
+            }
+            String contentHash = sha256(page.body());
+            if (!crawl && previous.isPresent() && contentHash.equals(previous.get().getContentHash())) {
+                return revalidate(previous.get(), page);
+            }
+            Document doc = page.parse();
+            PolicyCrawl policyCrawl = null;
+            if (crawl) {
+                policyCrawl = policyCrawler.crawl(doc, normalizedUrl);
+                // Link outcomes and policy keyword hits are all the crawl contributes to the analysis
+                contentHash = sha256((contentHash + policyCrawl.getLinks() + policyCrawl.getPageHits())
+                        .getBytes(StandardCharsets.UTF_8));
+                if (previous.isPresent() && contentHash.equals(previous.get().getContentHash())) {
+                    return revalidate(previous.get(), page);
+                }
+            }
+            ComplianceAnalyzer.AnalysisResult analysis = complianceAnalyzer.analyze(doc, normalizedUrl, policyCrawl);
             ScanResult result = new ScanResult();
             result.setUrl(normalizedUrl);
             result.setScore(analysis.getScore());
@@ -68,15 +128,47 @@ public class ScannerService {
             result.setDetailsJson(objectMapper.writeValueAsString(analysis.getDetails()));
             result.setJurisdiction(analysis.getJurisdiction());
             result.setUserId(userId);
+            result.setCrawled(crawl);
+            result.setEtag(page.header("ETag"));
+            result.setLastModified(page.header("Last-Modified"));
+            result.setContentHash(contentHash);
             ScanResult saved = scanResultRepository.save(result);
-            return toResponse(saved);
+            return cacheResponse(saved);
         } catch (Exception e) {
             log.error("Failed to scan URL: {}", normalizedUrl, e);
             throw new RuntimeException("Failed to scan website: " + e.getMessage());
         }
     }
 
-    private String normalizeUrl(String url) {
+    /**
+     * Marks an unchanged page's previous result as current again, keeping any
+     * validators the server sent with the new response.
+     */
+    private ScanResponseDto revalidate(ScanResult previous, PageFetcher.Page page) {
+        String etag = page.header("ETag");
+        String lastModified = page.header("Last-Modified");
+        if (etag != null) previous.setEtag(etag);
+        if (lastModified != null) previous.setLastModified(lastModified);
+        previous.setCheckedAt(LocalDateTime.now());
+        log.debug("Revalidated unchanged page {} (HTTP {})", previous.getUrl(), page.status());
+        return cacheResponse(scanResultRepository.save(previous));
+    }
+
+    private static String sha256(byte[] body) throws NoSuchAlgorithmException {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(body));
+    }
+
+    /**
+     * Retrieves a stored scan result by ID.
+     *
+     * @param id scan result ID
+     * @return the scan response, if it exists
+     */
+    public Optional<ScanResponseDto> findResult(Long id) {
+        return scanResultRepository.findById(id).map(this::toResponse);
+    }
+
+    String normalizeUrl(String url) {
         if (!url.startsWith("http://") && !url.startsWith("https://")) {
             url = "https://" + url;
         }
@@ -88,7 +180,17 @@ public class ScannerService {
         }
     }
 
-    private ScanResponseDto toResponse(ScanResult result) {
+    private static String cacheKey(String normalizedUrl, boolean crawled) {
+        return crawled ? "crawl:" + normalizedUrl : normalizedUrl;
+    }
+
+    private ScanResponseDto cacheResponse(ScanResult result) {
+        ScanResponseDto response = toResponse(result);
+        scanResultCache.put(cacheKey(result.getUrl(), result.isCrawled()), response, result.getCheckedAt());
+        return response;
+    }
+
+    ScanResponseDto toResponse(ScanResult result) {
         try {
             ScanResponseDto dto = new ScanResponseDto();
             dto.setId(result.getId());
@@ -111,6 +213,9 @@ public class ScannerService {
                     case "NO_CONTACT_INFO" -> recs.add("Add visible contact information to your website");
                     case "THIRD_PARTY_COOKIES" -> recs.add("Disclose third-party tracking in your Privacy Policy");
                     case "NO_HTTPS" -> recs.add("Enable HTTPS/SSL for your website");
+                    case "BROKEN_PRIVACY_LINK" -> recs.add("Fix the Privacy Policy link so it no longer returns an error");
+                    case "BROKEN_TERMS_LINK" -> recs.add("Fix the Terms of Service link so it no longer returns an error");
+                    case "MISSING_GDPR_RIGHTS" -> recs.add("Describe all GDPR data subject rights in your Privacy Policy");
                     default -> recs.add("Address: " + i.getTitle());
                 }
             });
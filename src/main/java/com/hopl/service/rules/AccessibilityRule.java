@@ -0,0 +1,41 @@
+package com.hopl.service.rules;
+
+import org.jsoup.nodes.Element;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Passes when the page has no images or more than half of them carry alt text.
+ */
+public class AccessibilityRule implements ComplianceRule {
+
+    @Override
+    public Set<NodeKind> interests() {
+        return EnumSet.of(NodeKind.IMAGE);
+    }
+
+    @Override
+    public RuleMatcher newMatcher(String url) {
+        return new RuleMatcher() {
+            private int totalImages;
+            private long imagesWithAlt;
+
+            @Override
+            public void onImage(Element image) {
+                totalImages++;
+                if (!image.attr("alt").isBlank()) imagesWithAlt++;
+            }
+
+            @Override
+            public void evaluate(RuleContext context) {
+                boolean passed = totalImages == 0 || (double) imagesWithAlt / totalImages > 0.5;
+                context.addCheck("NO_ACCESSIBILITY_BASICS", "Missing Basic Accessibility",
+                        "Basic accessibility features (alt text on images) are missing from key elements.",
+                        5, passed);
+                context.putDetail("totalImages", totalImages);
+                context.putDetail("imagesWithAlt", imagesWithAlt);
+            }
+        };
+    }
+}
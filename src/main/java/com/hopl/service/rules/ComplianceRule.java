@@ -0,0 +1,25 @@
+package com.hopl.service.rules;
+
+import java.util.Set;
+
+/**
+ * A single compliance check. Rules are stateless and shared across scans; the per-scan
+ * state lives in the {@link RuleMatcher} returned by {@link #newMatcher(String)}.
+ */
+public interface ComplianceRule {
+
+    /**
+     * Node kinds this rule wants to be fed during the page traversal.
+     *
+     * @return the kinds of interest, empty if the rule only needs the URL
+     */
+    Set<NodeKind> interests();
+
+    /**
+     * Creates the per-scan matcher for this rule.
+     *
+     * @param url the normalized URL being analyzed
+     * @return a fresh matcher
+     */
+    RuleMatcher newMatcher(String url);
+}
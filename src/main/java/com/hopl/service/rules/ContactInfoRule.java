@@ -0,0 +1,48 @@
+package com.hopl.service.rules;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Passes when the page exposes a contact link, a mailto or an email address.
+ */
+public class ContactInfoRule implements ComplianceRule {
+
+
+    @Override
+    public Set<NodeKind> interests() {
+        return EnumSet.of(NodeKind.TEXT, NodeKind.LINK);
+    }
+
+    @Override
+    public RuleMatcher newMatcher(String url) {
+        return new RuleMatcher() {
+            private boolean found;
+
+            @Override
+            public void onText(int hits) {
+                found |= isContact(hits);
+            }
+
+            @Override
+            public void onLink(int hrefHits, int textHits) {
+                found |= isContact(hrefHits | textHits);
+            }
+
+            @Override
+            public boolean isSatisfied() { return found; }
+
+            @Override
+            public void evaluate(RuleContext context) {
+                context.addCheck("NO_CONTACT_INFO", "No Contact Information",
+                        "No visible contact email, form, or address found. Most regulations require users to be able to contact you.",
+                        8, found);
+                context.putDetail("hasContactInfo", found);
+            }
+        };
+    }
+
+    private static boolean isContact(int hits) {
+        return KeywordFamily.CONTACT.in(hits) || KeywordFamily.EMAIL.in(hits);
+    }
+}
@@ -0,0 +1,39 @@
+package com.hopl.service.rules;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Passes when the markup references a known cookie consent mechanism.
+ */
+public class CookieConsentRule implements ComplianceRule {
+
+
+    @Override
+    public Set<NodeKind> interests() {
+        return EnumSet.of(NodeKind.TEXT);
+    }
+
+    @Override
+    public RuleMatcher newMatcher(String url) {
+        return new RuleMatcher() {
+            private boolean found;
+
+            @Override
+            public void onText(int hits) {
+                found |= KeywordFamily.COOKIE_BANNER.in(hits);
+            }
+
+            @Override
+            public boolean isSatisfied() { return found; }
+
+            @Override
+            public void evaluate(RuleContext context) {
+                context.addCheck("MISSING_COOKIE_CONSENT", "Missing Cookie Consent Banner",
+                        "No cookie consent mechanism detected. GDPR requires explicit consent before setting non-essential cookies.",
+                        15, found);
+                context.putDetail("hasCookieConsent", found);
+            }
+        };
+    }
+}
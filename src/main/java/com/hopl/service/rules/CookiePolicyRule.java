@@ -0,0 +1,44 @@
+package com.hopl.service.rules;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Passes when a dedicated cookie policy link exists, or when no trackers were
+ * found. Must run after the third-party tracking rule.
+ */
+public class CookiePolicyRule implements ComplianceRule {
+
+    @Override
+    public Set<NodeKind> interests() {
+        return EnumSet.of(NodeKind.LINK);
+    }
+
+    @Override
+    public RuleMatcher newMatcher(String url) {
+        return new RuleMatcher() {
+            private boolean found;
+
+            @Override
+            public void onLink(int hrefHits, int textHits) {
+                found |= isCookiePolicy(hrefHits) || isCookiePolicy(textHits);
+            }
+
+            @Override
+            public boolean isSatisfied() { return found; }
+
+            @Override
+            public void evaluate(RuleContext context) {
+                boolean hasTrackers = context.flag("hasTrackers");
+                context.addCheck("MISSING_COOKIE_POLICY", "Missing Cookie Policy",
+                        "Cookies are being set but no separate Cookie Policy page was found.",
+                        8, found || !hasTrackers);
+                context.putDetail("hasCookiePolicy", found);
+            }
+        };
+    }
+
+    private static boolean isCookiePolicy(int hits) {
+        return KeywordFamily.COOKIE.in(hits) && KeywordFamily.POLICY.in(hits);
+    }
+}
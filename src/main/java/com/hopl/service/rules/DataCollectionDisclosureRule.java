@@ -0,0 +1,42 @@
+package com.hopl.service.rules;
+
+import org.jsoup.nodes.Element;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fails when the page has forms but no privacy policy. Must run after the
+ * privacy policy rule.
+ */
+public class DataCollectionDisclosureRule implements ComplianceRule {
+
+    @Override
+    public Set<NodeKind> interests() {
+        return EnumSet.of(NodeKind.FORM);
+    }
+
+    @Override
+    public RuleMatcher newMatcher(String url) {
+        return new RuleMatcher() {
+            private boolean hasForms;
+
+            @Override
+            public void onForm(Element form) {
+                hasForms = true;
+            }
+
+            @Override
+            public boolean isSatisfied() { return hasForms; }
+
+            @Override
+            public void evaluate(RuleContext context) {
+                boolean disclosed = !hasForms || context.flag("hasPrivacyPolicy");
+                context.addCheck("NO_DATA_COLLECTION_DISCLOSURE", "No Data Collection Disclosure",
+                        "Forms collecting user data found but no disclosure about what data is collected or how it's used.",
+                        10, disclosed);
+                context.putDetail("hasForms", hasForms);
+            }
+        };
+    }
+}
@@ -0,0 +1,26 @@
+package com.hopl.service.rules;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Passes when the scanned URL is served over HTTPS.
+ */
+public class HttpsRule implements ComplianceRule {
+
+    @Override
+    public Set<NodeKind> interests() {
+        return EnumSet.noneOf(NodeKind.class);
+    }
+
+    @Override
+    public RuleMatcher newMatcher(String url) {
+        boolean isHttps = url.startsWith("https://");
+        return context -> {
+            context.addCheck("NO_HTTPS", "Not Using HTTPS",
+                    "Your website is not served over HTTPS. Unencrypted connections put user data at risk.",
+                    10, isHttps);
+            context.putDetail("isHttps", isHttps);
+        };
+    }
+}
@@ -0,0 +1,74 @@
+package com.hopl.service.rules;
+
+import java.net.URI;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Detects the applicable jurisdiction from the country TLD, falling back to
+ * regulation keywords in the markup. Does not score.
+ */
+public class JurisdictionRule implements ComplianceRule {
+
+    private static final Set<String> EU_TLDS = Set.of("de", "fr", "es", "it", "nl", "be", "at", "pt", "pl", "se", "fi", "dk",
+            "ie", "gr", "cz", "ro", "hu", "bg", "hr", "sk", "si", "lt", "lv", "ee",
+            "cy", "lu", "mt", "eu");
+
+    @Override
+    public Set<NodeKind> interests() {
+        return EnumSet.of(NodeKind.TEXT);
+    }
+
+    @Override
+    public RuleMatcher newMatcher(String url) {
+        String byTld = fromTld(extractTld(url));
+        return new RuleMatcher() {
+            private boolean gdpr;
+            private boolean ccpa;
+            private boolean lgpd;
+
+            @Override
+            public void onText(int hits) {
+                gdpr |= KeywordFamily.GDPR.in(hits);
+                ccpa |= KeywordFamily.CCPA.in(hits);
+                lgpd |= KeywordFamily.LGPD.in(hits);
+            }
+
+            @Override
+            public boolean isSatisfied() { return byTld != null || gdpr; }
+
+            @Override
+            public void evaluate(RuleContext context) {
+                String jurisdiction;
+                if (byTld != null) jurisdiction = byTld;
+                else if (gdpr) jurisdiction = "EU_GDPR";
+                else if (ccpa) jurisdiction = "US_CCPA";
+                else if (lgpd) jurisdiction = "BR_LGPD";
+                else jurisdiction = "GLOBAL";
+                context.setJurisdiction(jurisdiction);
+                context.putDetail("detectedJurisdiction", jurisdiction);
+            }
+        };
+    }
+
+    private static String fromTld(String tld) {
+        if (tld == null) return null;
+        if (EU_TLDS.contains(tld)) return "EU_GDPR";
+        if ("uk".equals(tld) || "co.uk".equals(tld)) return "UK_DPA";
+        if ("br".equals(tld) || "com.br".equals(tld)) return "BR_LGPD";
+        if ("ca".equals(tld)) return "CA_PIPEDA";
+        if ("au".equals(tld) || "com.au".equals(tld)) return "AU_PRIVACY";
+        return null;
+    }
+
+    private static String extractTld(String url) {
+        try {
+            String host = new URI(url).getHost();
+            if (host == null) return null;
+            String[] parts = host.split("\\.");
+            return parts.length > 1 ? parts[parts.length - 1] : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.hopl.service.rules;
+
+import java.util.List;
+
+/**
+ * Keyword groups recognized by {@link KeywordMatcher}. A keyword written as
+ * {@code first*second} matches {@code first} followed by {@code second} later on the
+ * same line, like the regex {@code first.*second}. Matching is ASCII case-insensitive.
+ */
+public enum KeywordFamily {
+    PRIVACY("privacy", "privacidad", "datenschutz", "confidentialit", "privacidade"),
+    TERMS("terms", "condiciones", "nutzungsbedingungen", "conditions*utilisation", "termos"),
+    COOKIE_BANNER("cookie-consent", "cookie-banner", "cookie-notice", "cookieconsent", "cc-window",
+            "gdpr", "onetrust", "cookiebot", "quantcast"),
+    CONTACT("contact", "contacto", "kontakt", "mailto:"),
+    /** Email addresses ({@code @domain.tld}); detected by the matcher rather than by keywords. */
+    EMAIL,
+    TRACKER("google-analytics", "googletagmanager", "gtag", "fbq", "facebook*pixel", "hotjar", "mixpanel",
+            "segment.com", "analytics.js"),
+    OPT_OUT("unsubscribe", "opt-out", "opt out", "darse de baja"),
+    COOKIE("cookie"),
+    POLICY("policy", "politic"),
+    GDPR("gdpr", "rgpd", "dsgvo"),
+    CCPA("ccpa", "california"),
+    LGPD("lgpd"),
+    // GDPR data subject rights, looked for on crawled privacy policy pages
+    RIGHT_OF_ACCESS("right of access", "right to access", "derecho de acceso", "auskunftsrecht", "recht auf auskunft"),
+    RIGHT_TO_RECTIFICATION("rectification", "rectificaci", "berichtigung"),
+    RIGHT_TO_ERASURE("erasure", "right to be forgotten", "right to delete", "supresi", "recht auf l"),
+    RIGHT_TO_RESTRICTION("restriction of processing", "restrict*processing", "limitaci", "einschr"),
+    RIGHT_TO_PORTABILITY("portability", "portabilidad", "bertragbarkeit"),
+    RIGHT_TO_OBJECT("right to object", "oposici", "widerspruch"),
+    RIGHT_TO_COMPLAIN("supervisory authority", "lodge a complaint", "autoridad de control", "aufsichtsbeh");
+
+    private final List<String> keywords;
+
+    KeywordFamily(String... keywords) {
+        this.keywords = List.of(keywords);
+    }
+
+    public List<String> getKeywords() { return keywords; }
+
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /** Returns true if this family is set in a hit mask returned by {@link KeywordMatcher#scan}. */
+    public boolean in(int hits) {
+        return (hits & bit()) != 0;
+    }
+}
@@ -0,0 +1,194 @@
+package com.hopl.service.rules;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Aho-Corasick automaton over every {@link KeywordFamily}. One left-to-right pass
+ * over a string reports all families that occur in it as a bit mask. The automaton
+ * is immutable and safe to share between threads.
+ */
+public final class KeywordMatcher {
+
+    /** Shared automaton for all families. */
+    public static final KeywordMatcher DEFAULT = new KeywordMatcher();
+
+    private static final int ALPHABET = 128;
+
+    /** Dense DFA: {@code transitions[state * ALPHABET + c]}. */
+    private final int[] transitions;
+    /** Family bits of every keyword ending in the state, including via failure links. */
+    private final int[] outputs;
+    /** Bits of the first halves of split keywords ending in the state. */
+    private final long[] firstHalves;
+    /** Bits of the second halves of split keywords ending in the state. */
+    private final long[] secondHalves;
+    /** Length of each split keyword's second half, by split index. */
+    private final int[] secondLengths;
+    /** Family bit of each split keyword, by split index. */
+    private final int[] splitFamilies;
+
+    private KeywordMatcher() {
+        List<int[]> gotos = new ArrayList<>();
+        List<Integer> out = new ArrayList<>();
+        List<Long> firsts = new ArrayList<>();
+        List<Long> seconds = new ArrayList<>();
+        List<Integer> splitLengths = new ArrayList<>();
+        List<Integer> splitBits = new ArrayList<>();
+        newState(gotos, out, firsts, seconds);
+
+        for (KeywordFamily family : KeywordFamily.values()) {
+            for (String keyword : family.getKeywords()) {
+                int star = keyword.indexOf('*');
+                if (star < 0) {
+                    int state = insert(keyword, gotos, out, firsts, seconds);
+                    out.set(state, out.get(state) | family.bit());
+                } else {
+                    int split = splitLengths.size();
+                    String second = keyword.substring(star + 1);
+                    splitLengths.add(second.length());
+                    splitBits.add(family.bit());
+                    int a = insert(keyword.substring(0, star), gotos, out, firsts, seconds);
+                    firsts.set(a, firsts.get(a) | 1L << split);
+                    int b = insert(second, gotos, out, firsts, seconds);
+                    seconds.set(b, seconds.get(b) | 1L << split);
+                }
+            }
+        }
+
+        int states = gotos.size();
+        transitions = new int[states * ALPHABET];
+        outputs = new int[states];
+        firstHalves = new long[states];
+        secondHalves = new long[states];
+        for (int s = 0; s < states; s++) {
+            outputs[s] = out.get(s);
+            firstHalves[s] = firsts.get(s);
+            secondHalves[s] = seconds.get(s);
+        }
+        secondLengths = splitLengths.stream().mapToInt(Integer::intValue).toArray();
+        splitFamilies = splitBits.stream().mapToInt(Integer::intValue).toArray();
+
+        // Breadth-first construction of failure links, folded straight into the DFA.
+        int[] fail = new int[states];
+        Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < ALPHABET; c++) {
+            int next = gotos.get(0)[c];
+            if (next > 0) {
+                transitions[c] = next;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int s = queue.poll();
+            outputs[s] |= outputs[fail[s]];
+            firstHalves[s] |= firstHalves[fail[s]];
+            secondHalves[s] |= secondHalves[fail[s]];
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = gotos.get(s)[c];
+                if (next > 0) {
+                    fail[next] = transitions[fail[s] * ALPHABET + c];
+                    transitions[s * ALPHABET + c] = next;
+                    queue.add(next);
+                } else {
+                    transitions[s * ALPHABET + c] = transitions[fail[s] * ALPHABET + c];
+                }
+            }
+        }
+    }
+
+    /**
+     * Scans the text once and returns the bit mask of every family found.
+     *
+     * @param text the text to scan
+     * @return OR of {@link KeywordFamily#bit()} for each matching family
+     */
+    public int scan(CharSequence text) {
+        int hits = 0;
+        int state = 0;
+        long openFirstHalves = 0;
+        int[] firstHalfEnds = null;
+        int len = text.length();
+        for (int i = 0; i < len; i++) {
+            char c = text.charAt(i);
+            if (c >= ALPHABET) {
+                state = 0;
+                if (c == '\u0085' || c == '\u2028' || c == '\u2029') openFirstHalves = 0;
+                continue;
+            }
+            if (c == '\n' || c == '\r') {
+                openFirstHalves = 0;
+            } else if (c == '@' && !KeywordFamily.EMAIL.in(hits) && emailDomainFollows(text, i + 1)) {
+                hits |= KeywordFamily.EMAIL.bit();
+            }
+            if (c >= 'A' && c <= 'Z') c += 'a' - 'A';
+            state = transitions[state * ALPHABET + c];
+            hits |= outputs[state];
+
+            long seconds = secondHalves[state] & openFirstHalves;
+            while (seconds != 0) {
+                int split = Long.numberOfTrailingZeros(seconds);
+                seconds &= seconds - 1;
+                if (firstHalfEnds[split] < i - secondLengths[split] + 1) {
+                    hits |= splitFamilies[split];
+                }
+            }
+            long firsts = firstHalves[state] & ~openFirstHalves;
+            if (firsts != 0) {
+                if (firstHalfEnds == null) firstHalfEnds = new int[secondLengths.length];
+                openFirstHalves |= firsts;
+                while (firsts != 0) {
+                    int split = Long.numberOfTrailingZeros(firsts);
+                    firsts &= firsts - 1;
+                    firstHalfEnds[split] = i;
+                }
+            }
+        }
+        return hits;
+    }
+
+    /** Matches {@code [a-zA-Z0-9.-]+\.[a-zA-Z]{2,}} starting at {@code from}. */
+    private static boolean emailDomainFollows(CharSequence text, int from) {
+        int len = text.length();
+        for (int i = from; i < len; i++) {
+            char c = text.charAt(i);
+            if (c == '.' && i > from && i + 2 < len
+                    && isAsciiLetter(text.charAt(i + 1)) && isAsciiLetter(text.charAt(i + 2))) {
+                return true;
+            }
+            if (!isAsciiLetter(c) && !(c >= '0' && c <= '9') && c != '.' && c != '-') {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static int insert(String keyword, List<int[]> gotos, List<Integer> out,
+                              List<Long> firsts, List<Long> seconds) {
+        int state = 0;
+        for (int i = 0; i < keyword.length(); i++) {
+            char c = Character.toLowerCase(keyword.charAt(i));
+            int next = gotos.get(state)[c];
+            if (next == 0) {
+                next = newState(gotos, out, firsts, seconds);
+                gotos.get(state)[c] = next;
+            }
+            state = next;
+        }
+        return state;
+    }
+
+    private static int newState(List<int[]> gotos, List<Integer> out, List<Long> firsts, List<Long> seconds) {
+        gotos.add(new int[ALPHABET]);
+        out.add(0);
+        firsts.add(0L);
+        seconds.add(0L);
+        return gotos.size() - 1;
+    }
+}
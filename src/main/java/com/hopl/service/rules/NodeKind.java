@@ -0,0 +1,17 @@
+package com.hopl.service.rules;
+
+/**
+ * Node categories the analyzer's single DOM traversal dispatches to rules.
+ */
+public enum NodeKind {
+    /** Anchors carrying an {@code href} attribute. */
+    LINK,
+    /** Every {@code script} element, inline or external. */
+    SCRIPT,
+    /** Every {@code form} element. */
+    FORM,
+    /** Every {@code img} element. */
+    IMAGE,
+    /** Every markup fragment: tag names, attribute keys and values, text, script data and comments. */
+    TEXT
+}
@@ -0,0 +1,38 @@
+package com.hopl.service.rules;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Passes when the markup mentions an unsubscribe or opt-out mechanism, or when
+ * the page has no forms. Must run after the data collection disclosure rule.
+ */
+public class OptOutRule implements ComplianceRule {
+
+    @Override
+    public Set<NodeKind> interests() {
+        return EnumSet.of(NodeKind.TEXT);
+    }
+
+    @Override
+    public RuleMatcher newMatcher(String url) {
+        return new RuleMatcher() {
+            private boolean found;
+
+            @Override
+            public void onText(int hits) {
+                found |= KeywordFamily.OPT_OUT.in(hits);
+            }
+
+            @Override
+            public boolean isSatisfied() { return found; }
+
+            @Override
+            public void evaluate(RuleContext context) {
+                context.addCheck("NO_OPT_OUT", "No Opt-Out Mechanism",
+                        "No unsubscribe or opt-out mechanism found for marketing communications.",
+                        7, found || !context.flag("hasForms"));
+            }
+        };
+    }
+}
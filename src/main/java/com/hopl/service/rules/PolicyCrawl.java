@@ -0,0 +1,101 @@
+package com.hopl.service.rules;
+
+import com.hopl.model.enums.ComplianceIssue;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * What a crawl of a site's policy links found: the status of every link checked and
+ * the keyword hits of each kind of policy page fetched. Evaluated after the landing
+ * page rules, into the same {@link RuleContext}.
+ */
+public class PolicyCrawl {
+
+    public enum LinkStatus { OK, BROKEN, UNCHECKED }
+
+    /**
+     * One checked link.
+     *
+     * @param url absolute link target
+     * @param kind kind of policy page
+     * @param depth 1 for links on the landing page, 2 for links on policy pages, and so on
+     * @param status outcome; UNCHECKED when the crawl ran out of time first
+     * @param httpStatus final HTTP status, or 0 if none was received
+     * @param analyzed whether the page content was fetched and scanned
+     */
+    public record LinkCheck(String url, PolicyKind kind, int depth, LinkStatus status, int httpStatus, boolean analyzed) {
+    }
+
+    private static final List<KeywordFamily> GDPR_RIGHTS = List.of(
+            KeywordFamily.RIGHT_OF_ACCESS, KeywordFamily.RIGHT_TO_RECTIFICATION, KeywordFamily.RIGHT_TO_ERASURE,
+            KeywordFamily.RIGHT_TO_RESTRICTION, KeywordFamily.RIGHT_TO_PORTABILITY, KeywordFamily.RIGHT_TO_OBJECT,
+            KeywordFamily.RIGHT_TO_COMPLAIN);
+
+    /** Jurisdictions with their own regime, where GDPR rights are not scored. */
+    private static final Set<String> NON_GDPR = Set.of("US_CCPA", "BR_LGPD", "CA_PIPEDA", "AU_PRIVACY");
+
+    private final List<LinkCheck> links;
+    private final Map<PolicyKind, Integer> pageHits;
+
+    public PolicyCrawl(List<LinkCheck> links, Map<PolicyKind, Integer> pageHits) {
+        this.links = List.copyOf(links);
+        this.pageHits = pageHits.isEmpty() ? Map.of() : new EnumMap<>(pageHits);
+    }
+
+    public List<LinkCheck> getLinks() { return links; }
+    public Map<PolicyKind, Integer> getPageHits() { return pageHits; }
+
+    /**
+     * Adds broken-link checks for each kind of policy link found and, when a privacy
+     * policy was fetched, the data subject rights check.
+     *
+     * @param context the context the landing page rules were evaluated into
+     */
+    public void evaluate(RuleContext context) {
+        for (PolicyKind kind : PolicyKind.values()) {
+            List<String> broken = new ArrayList<>();
+            boolean found = false;
+            for (LinkCheck link : links) {
+                if (link.kind() != kind) continue;
+                found = true;
+                if (link.status() == LinkStatus.BROKEN) broken.add(link.url());
+            }
+            if (!found) continue;
+            ComplianceIssue issue = kind.getBrokenLinkIssue();
+            if (issue != null) {
+                context.addCheck(issue.name(), issue.getTitle(), issue.getDescription(), issue.getSeverity(),
+                        broken.isEmpty());
+            }
+            if (!broken.isEmpty()) {
+                context.putDetail("broken" + detailSuffix(kind) + "Links", broken);
+            }
+        }
+        context.putDetail("policyLinks", links);
+
+        Integer privacyHits = pageHits.get(PolicyKind.PRIVACY);
+        if (privacyHits != null) {
+            List<String> missing = new ArrayList<>();
+            for (KeywordFamily right : GDPR_RIGHTS) {
+                if (!right.in(privacyHits)) missing.add(right.name());
+            }
+            context.putDetail("missingGdprRights", missing);
+            if (!NON_GDPR.contains(context.getJurisdiction())) {
+                ComplianceIssue issue = ComplianceIssue.MISSING_GDPR_RIGHTS;
+                context.addCheck(issue.name(), issue.getTitle(), issue.getDescription(), issue.getSeverity(),
+                        missing.isEmpty());
+            }
+        }
+    }
+
+    private static String detailSuffix(PolicyKind kind) {
+        return switch (kind) {
+            case PRIVACY -> "Privacy";
+            case TERMS -> "Terms";
+            case COOKIE_POLICY -> "CookiePolicy";
+        };
+    }
+}
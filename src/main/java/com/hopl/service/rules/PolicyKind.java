@@ -0,0 +1,37 @@
+package com.hopl.service.rules;
+
+import com.hopl.model.enums.ComplianceIssue;
+
+/**
+ * Kinds of legal page a crawl follows, and the issue reported when a link to one is broken.
+ */
+public enum PolicyKind {
+    PRIVACY(ComplianceIssue.BROKEN_PRIVACY_LINK),
+    TERMS(ComplianceIssue.BROKEN_TERMS_LINK),
+    COOKIE_POLICY(null);
+
+    private final ComplianceIssue brokenLinkIssue;
+
+    PolicyKind(ComplianceIssue brokenLinkIssue) {
+        this.brokenLinkIssue = brokenLinkIssue;
+    }
+
+    /** Returns the issue scored for a broken link of this kind, or null if it is only reported as a detail. */
+    public ComplianceIssue getBrokenLinkIssue() { return brokenLinkIssue; }
+
+    /**
+     * Classifies a link from the keyword hits of its href and text.
+     *
+     * @param hrefHits keyword mask of the href
+     * @param textHits keyword mask of the link text
+     * @return the policy kind, or null if the link is not a policy link
+     */
+    public static PolicyKind classify(int hrefHits, int textHits) {
+        int hits = hrefHits | textHits;
+        if (KeywordFamily.PRIVACY.in(hits)) return PRIVACY;
+        if (KeywordFamily.TERMS.in(hits)) return TERMS;
+        if (KeywordFamily.COOKIE.in(hrefHits)
+                || (KeywordFamily.COOKIE.in(textHits) && KeywordFamily.POLICY.in(textHits))) return COOKIE_POLICY;
+        return null;
+    }
+}
@@ -0,0 +1,39 @@
+package com.hopl.service.rules;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Passes when any link points to or mentions a privacy policy.
+ */
+public class PrivacyPolicyRule implements ComplianceRule {
+
+
+    @Override
+    public Set<NodeKind> interests() {
+        return EnumSet.of(NodeKind.LINK);
+    }
+
+    @Override
+    public RuleMatcher newMatcher(String url) {
+        return new RuleMatcher() {
+            private boolean found;
+
+            @Override
+            public void onLink(int hrefHits, int textHits) {
+                found |= KeywordFamily.PRIVACY.in(hrefHits | textHits);
+            }
+
+            @Override
+            public boolean isSatisfied() { return found; }
+
+            @Override
+            public void evaluate(RuleContext context) {
+                context.addCheck("MISSING_PRIVACY_POLICY", "Missing Privacy Policy",
+                        "Your website does not have a visible Privacy Policy link. Required by GDPR, CCPA, and most data protection laws.",
+                        15, found);
+                context.putDetail("hasPrivacyPolicy", found);
+            }
+        };
+    }
+}
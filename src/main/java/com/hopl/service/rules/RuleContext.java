@@ -0,0 +1,59 @@
+package com.hopl.service.rules;
+
+import com.hopl.dto.scan.ScanResponseDto;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects issues, details and points while matchers are evaluated.
+ */
+public class RuleContext {
+
+    private final String url;
+    private final List<ScanResponseDto.IssueDto> issues = new ArrayList<>();
+    private final Map<String, Object> details = new HashMap<>();
+    private int totalPoints;
+    private int earnedPoints;
+    private String jurisdiction = "GLOBAL";
+
+    public RuleContext(String url) {
+        this.url = url;
+    }
+
+    /**
+     * Records a scored check.
+     *
+     * @param code issue code
+     * @param title issue title
+     * @param description issue description
+     * @param severity points at stake
+     * @param passed whether the check passed
+     */
+    public void addCheck(String code, String title, String description, int severity, boolean passed) {
+        issues.add(new ScanResponseDto.IssueDto(code, title, description, severity, passed));
+        totalPoints += severity;
+        if (passed) earnedPoints += severity;
+    }
+
+    public void putDetail(String key, Object value) {
+        details.put(key, value);
+    }
+
+    /** Returns a boolean detail written by an earlier rule, false if absent. */
+    public boolean flag(String key) {
+        return Boolean.TRUE.equals(details.get(key));
+    }
+
+    public int score() {
+        return totalPoints > 0 ? (int) Math.round((double) earnedPoints / totalPoints * 100) : 0;
+    }
+
+    public String getUrl() { return url; }
+    public List<ScanResponseDto.IssueDto> getIssues() { return issues; }
+    public Map<String, Object> getDetails() { return details; }
+    public String getJurisdiction() { return jurisdiction; }
+    public void setJurisdiction(String jurisdiction) { this.jurisdiction = jurisdiction; }
+}
@@ -0,0 +1,33 @@
+package com.hopl.service.rules;
+
+import org.jsoup.nodes.Element;
+
+/**
+ * Per-scan accumulator of a {@link ComplianceRule}. The traversal only calls the
+ * callbacks for the kinds the rule declared interest in, and stops feeding a matcher
+ * once it reports {@link #isSatisfied()}. Text is handed over as {@link KeywordFamily}
+ * hit masks, scanned once per string by {@link KeywordMatcher}.
+ */
+public interface RuleMatcher {
+
+    default void onLink(int hrefHits, int textHits) {}
+
+    default void onScript(int hits) {}
+
+    default void onForm(Element form) {}
+
+    default void onImage(Element image) {}
+
+    default void onText(int hits) {}
+
+    /** Returns true once further input cannot change this matcher's outcome. */
+    default boolean isSatisfied() { return false; }
+
+    /**
+     * Records the outcome of the check once the traversal has finished. Matchers are
+     * evaluated in rule order, so a rule may read details written by earlier rules.
+     *
+     * @param context the shared analysis context
+     */
+    void evaluate(RuleContext context);
+}
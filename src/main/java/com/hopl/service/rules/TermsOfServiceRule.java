@@ -0,0 +1,39 @@
+package com.hopl.service.rules;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Passes when any link points to or mentions terms of service.
+ */
+public class TermsOfServiceRule implements ComplianceRule {
+
+
+    @Override
+    public Set<NodeKind> interests() {
+        return EnumSet.of(NodeKind.LINK);
+    }
+
+    @Override
+    public RuleMatcher newMatcher(String url) {
+        return new RuleMatcher() {
+            private boolean found;
+
+            @Override
+            public void onLink(int hrefHits, int textHits) {
+                found |= KeywordFamily.TERMS.in(hrefHits | textHits);
+            }
+
+            @Override
+            public boolean isSatisfied() { return found; }
+
+            @Override
+            public void evaluate(RuleContext context) {
+                context.addCheck("MISSING_TERMS", "Missing Terms of Service",
+                        "No Terms of Service or Terms and Conditions link was found on your website.",
+                        10, found);
+                context.putDetail("hasTerms", found);
+            }
+        };
+    }
+}
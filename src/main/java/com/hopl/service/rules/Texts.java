@@ -0,0 +1,42 @@
+package com.hopl.service.rules;
+
+/**
+ * String helpers for the analyzer's traversal.
+ */
+public final class Texts {
+
+    private Texts() {}
+
+    /**
+     * Collapses runs of ASCII whitespace into a single space, as the pretty printer
+     * does for flow text. Returns the input unchanged when nothing needs collapsing.
+     */
+    public static String normaliseWhitespace(String text) {
+        int len = text.length();
+        int i = 0;
+        for (; i < len; i++) {
+            char c = text.charAt(i);
+            if (isWhitespace(c) && (c != ' ' || (i + 1 < len && isWhitespace(text.charAt(i + 1))))) {
+                break;
+            }
+        }
+        if (i == len) return text;
+        StringBuilder sb = new StringBuilder(len).append(text, 0, i);
+        boolean lastWasWhite = false;
+        for (; i < len; i++) {
+            char c = text.charAt(i);
+            if (isWhitespace(c)) {
+                if (!lastWasWhite) sb.append(' ');
+                lastWasWhite = true;
+            } else {
+                sb.append(c);
+                lastWasWhite = false;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,44 @@
+package com.hopl.service.rules;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Fails when tracking scripts are present but neither a privacy policy nor a
+ * cookie consent mechanism discloses them. Must run after the privacy and
+ * cookie consent rules.
+ */
+public class ThirdPartyTrackingRule implements ComplianceRule {
+
+
+    @Override
+    public Set<NodeKind> interests() {
+        return EnumSet.of(NodeKind.SCRIPT);
+    }
+
+    @Override
+    public RuleMatcher newMatcher(String url) {
+        return new RuleMatcher() {
+            private boolean found;
+
+            @Override
+            public void onScript(int hits) {
+                found |= KeywordFamily.TRACKER.in(hits);
+            }
+
+            @Override
+            public boolean isSatisfied() { return found; }
+
+            @Override
+            public void evaluate(RuleContext context) {
+                boolean disclosed = found && (context.flag("hasPrivacyPolicy") || context.flag("hasCookieConsent"));
+                boolean trackerIssue = found && !disclosed;
+                context.addCheck("THIRD_PARTY_COOKIES", "Third-Party Tracking Without Disclosure",
+                        "Third-party scripts (analytics, ads, pixels) detected but not disclosed in a privacy or cookie policy.",
+                        12, !trackerIssue);
+                context.putDetail("hasTrackers", found);
+                context.putDetail("trackersDisclosed", disclosed);
+            }
+        };
+    }
+}
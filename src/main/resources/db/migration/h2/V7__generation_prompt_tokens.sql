@@ -0,0 +1,2 @@
+-- Prompt tokens sent to the model for the document; NULL for demo and cached documents
+ALTER TABLE generated_documents ADD COLUMN prompt_tokens BIGINT;
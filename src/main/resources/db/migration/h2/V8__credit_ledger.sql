@@ -0,0 +1,12 @@
+-- Append-only record of every credit movement
+CREATE TABLE credit_ledger (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    delta INT NOT NULL,
+    reason VARCHAR(20) NOT NULL,
+    reference VARCHAR(100),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+CREATE INDEX idx_credit_ledger_user ON credit_ledger(user_id);
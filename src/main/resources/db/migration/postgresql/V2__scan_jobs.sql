@@ -0,0 +1,15 @@
+-- Asynchronous scan jobs
+CREATE TABLE scan_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    url VARCHAR(2048) NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    scan_result_id BIGINT,
+    error VARCHAR(1000),
+    user_id BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (scan_result_id) REFERENCES scan_results(id),
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+CREATE INDEX idx_scan_jobs_status ON scan_jobs(status);
@@ -0,0 +1,9 @@
+-- Validators for conditional rescans
+ALTER TABLE scan_results ADD COLUMN etag VARCHAR(512);
+ALTER TABLE scan_results ADD COLUMN last_modified VARCHAR(64);
+ALTER TABLE scan_results ADD COLUMN content_hash VARCHAR(64);
+ALTER TABLE scan_results ADD COLUMN checked_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP;
+
+UPDATE scan_results SET checked_at = created_at;
+
+CREATE INDEX idx_scan_results_url_checked ON scan_results(url, checked_at);
@@ -0,0 +1,2 @@
+-- Results of crawl-mode scans, which also cover policy pages, are kept apart from landing-page scans
+ALTER TABLE scan_results ADD COLUMN crawled BOOLEAN NOT NULL DEFAULT FALSE;
@@ -0,0 +1,6 @@
+-- Hash of the rendered completion request, for serving identical requests from earlier outputs
+ALTER TABLE generated_documents ADD COLUMN prompt_hash VARCHAR(64);
+-- Whether the content was copied from an earlier output instead of generated
+ALTER TABLE generated_documents ADD COLUMN cached BOOLEAN NOT NULL DEFAULT FALSE;
+
+CREATE INDEX idx_generated_documents_prompt_hash ON generated_documents(prompt_hash, created_at);
@@ -0,0 +1,16 @@
+-- Queued document generation requests
+CREATE TABLE generation_jobs (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'PENDING',
+    priority INT NOT NULL DEFAULT 0,
+    request_json TEXT NOT NULL,
+    document_id BIGINT,
+    error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id),
+    FOREIGN KEY (document_id) REFERENCES generated_documents(id)
+);
+
+CREATE INDEX idx_generation_jobs_status ON generation_jobs(status);
@@ -0,0 +1,99 @@
+package com.hopl.service;
+
+import com.hopl.dto.scan.BatchScanItemDto;
+import com.hopl.dto.scan.ScanResponseDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BatchScanServiceTest {
+
+    private final HoldingExecutor executor = new HoldingExecutor();
+    private final ExecutorService caller = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+        caller.shutdownNow();
+    }
+
+    @Test
+    void abortedBatchReturnsPermitsOfQueuedScans() throws Exception {
+        ScannerService scanner = mock(ScannerService.class);
+        when(scanner.scan(anyString(), anyLong())).thenReturn(new ScanResponseDto());
+        BatchScanService service = new BatchScanService(scanner, executor, 1);
+        ReflectionTestUtils.setField(service, "maxInFlight", 16);
+
+        // The first scan runs, the second stays queued; the sink fails on the first result
+        executor.runNext(1);
+        List<BatchScanItemDto> delivered = new ArrayList<>();
+        service.scanAll(List.of("https://b.example/", "https://a.example/"), 1L, item -> {
+            delivered.add(item);
+            throw new UncheckedIOException(new IOException("client went away"));
+        });
+        assertThat(delivered).extracting(BatchScanItemDto::getUrl).containsExactly("https://b.example/");
+
+        // a.example's only permit must be free again, or this batch waits forever
+        executor.runNext(Integer.MAX_VALUE);
+        List<BatchScanItemDto> second = new CopyOnWriteArrayList<>();
+        caller.submit(() -> service.scanAll(List.of("https://a.example/next"), 1L, second::add))
+                .get(5, TimeUnit.SECONDS);
+        assertThat(second).extracting(BatchScanItemDto::getStatus).containsExactly("COMPLETED");
+    }
+
+    /** Runs only as many tasks as it is told to, each on its own thread, and holds the rest. */
+    private static final class HoldingExecutor extends AbstractExecutorService {
+        private int allowance;
+        private volatile boolean shutdown;
+
+        synchronized void runNext(int tasks) {
+            allowance = tasks;
+        }
+
+        @Override
+        public synchronized void execute(Runnable command) {
+            if (allowance > 0) {
+                allowance--;
+                Thread.ofPlatform().start(command);
+            }
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) {
+            return true;
+        }
+    }
+}
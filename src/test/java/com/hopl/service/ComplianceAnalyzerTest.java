@@ -0,0 +1,109 @@
+package com.hopl.service;
+
+import com.hopl.dto.scan.ScanResponseDto;
+import com.hopl.service.rules.*;
+import org.jsoup.Jsoup;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pins the rule engine to the results of the analyzer it replaced, which serialized the
+ * page and matched regexes against it. Expected values were produced by that analyzer.
+ */
+class ComplianceAnalyzerTest {
+
+    private static final List<String> CHECKS = List.of("MISSING_PRIVACY_POLICY", "MISSING_TERMS",
+            "MISSING_COOKIE_CONSENT", "NO_CONTACT_INFO", "THIRD_PARTY_COOKIES", "NO_HTTPS", "MISSING_COOKIE_POLICY",
+            "NO_DATA_COLLECTION_DISCLOSURE", "NO_OPT_OUT", "NO_ACCESSIBILITY_BASICS");
+
+    private final ComplianceAnalyzer analyzer = new ComplianceAnalyzer();
+
+    @ParameterizedTest
+    @CsvSource({
+            "compliant.html, https://acme.example.com/, 100, GLOBAL, ''",
+            "bare.html, http://soon.example.net/, 20, GLOBAL, 'MISSING_PRIVACY_POLICY MISSING_TERMS MISSING_COOKIE_CONSENT NO_CONTACT_INFO NO_HTTPS NO_DATA_COLLECTION_DISCLOSURE NO_OPT_OUT NO_ACCESSIBILITY_BASICS'",
+            // Link text is joined across tags and lines; page markup is not
+            "split-keywords.html, https://boutique.example.fr/, 77, EU_GDPR, 'MISSING_COOKIE_CONSENT NO_CONTACT_INFO'",
+            "email-in-text.html, https://studio.example.com/, 62, US_CCPA, 'MISSING_TERMS MISSING_COOKIE_CONSENT MISSING_COOKIE_POLICY NO_ACCESSIBILITY_BASICS'",
+            // Comments, attribute values and script data count as page content
+            "comments-attributes.html, http://shop.example.com/, 57, EU_GDPR, 'MISSING_PRIVACY_POLICY NO_HTTPS MISSING_COOKIE_POLICY NO_DATA_COLLECTION_DISCLOSURE'",
+            "comments-attributes.html, https://shop.example.co.uk/, 67, UK_DPA, 'MISSING_PRIVACY_POLICY MISSING_COOKIE_POLICY NO_DATA_COLLECTION_DISCLOSURE'"
+    })
+    void matchesPreviousAnalyzer(String fixture, String url, int score, String jurisdiction, String failed)
+            throws IOException {
+        ComplianceAnalyzer.AnalysisResult result = analyzer.analyze(Jsoup.parse(fixture(fixture), url), url);
+
+        assertThat(result.getIssues()).extracting(ScanResponseDto.IssueDto::getCode).containsExactlyElementsOf(CHECKS);
+        assertThat(result.getIssues()).filteredOn(issue -> !issue.isPassed())
+                .extracting(ScanResponseDto.IssueDto::getCode)
+                .containsExactlyElementsOf(failed.isEmpty() ? List.of() : Arrays.asList(failed.split(" ")));
+        assertThat(result.getScore()).isEqualTo(score);
+        assertThat(result.getJurisdiction()).isEqualTo(jurisdiction);
+        assertThat(result.getDetails()).containsEntry("detectedJurisdiction", jurisdiction);
+    }
+
+    /** A match stays found when later input does not match, whether or not the traversal skips the matcher. */
+    @ParameterizedTest
+    @MethodSource("keywordRules")
+    void matcherKeepsMatchOnceFound(ComplianceRule rule, String code, Consumer<RuleMatcher> feedMatch) {
+        RuleMatcher matcher = rule.newMatcher("https://example.com/");
+        feedMatch.accept(matcher);
+        matcher.onLink(0, 0);
+        matcher.onScript(0);
+        matcher.onText(0);
+
+        RuleContext context = new RuleContext("https://example.com/");
+        context.putDetail("hasForms", true);
+        matcher.evaluate(context);
+        assertThat(context.getIssues()).singleElement().satisfies(issue -> {
+            assertThat(issue.getCode()).isEqualTo(code);
+            // A tracker passes only when disclosed; found means the check failed here
+            assertThat(issue.isPassed()).isEqualTo(!"THIRD_PARTY_COOKIES".equals(code));
+        });
+    }
+
+    static Stream<Arguments> keywordRules() {
+        KeywordMatcher keywords = KeywordMatcher.DEFAULT;
+        return Stream.of(
+                Arguments.of(new PrivacyPolicyRule(), "MISSING_PRIVACY_POLICY",
+                        link(keywords.scan("/privacy"), 0)),
+                Arguments.of(new TermsOfServiceRule(), "MISSING_TERMS",
+                        link(0, keywords.scan("Terms of Service"))),
+                Arguments.of(new CookiePolicyRule(), "MISSING_COOKIE_POLICY",
+                        link(keywords.scan("/cookie-policy"), 0)),
+                Arguments.of(new ContactInfoRule(), "NO_CONTACT_INFO",
+                        text(keywords.scan("hello@studio.example.org"))),
+                Arguments.of(new CookieConsentRule(), "MISSING_COOKIE_CONSENT",
+                        text(keywords.scan("cookieconsent"))),
+                Arguments.of(new OptOutRule(), "NO_OPT_OUT",
+                        text(keywords.scan("unsubscribe"))),
+                Arguments.of(new ThirdPartyTrackingRule(), "THIRD_PARTY_COOKIES",
+                        (Consumer<RuleMatcher>) m -> m.onScript(keywords.scan("https://www.googletagmanager.com/gtm.js"))));
+    }
+
+    private static Consumer<RuleMatcher> link(int hrefHits, int textHits) {
+        return m -> m.onLink(hrefHits, textHits);
+    }
+
+    private static Consumer<RuleMatcher> text(int hits) {
+        return m -> m.onText(hits);
+    }
+
+    private static String fixture(String name) throws IOException {
+        try (InputStream in = ComplianceAnalyzerTest.class.getResourceAsStream("/analyzer/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
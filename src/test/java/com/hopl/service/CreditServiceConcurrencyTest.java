@@ -0,0 +1,79 @@
+package com.hopl.service;
+
+import com.hopl.model.CreditLedgerEntry;
+import com.hopl.model.User;
+import com.hopl.model.enums.CreditLedgerReason;
+import com.hopl.model.enums.PlanType;
+import com.hopl.repository.CreditLedgerRepository;
+import com.hopl.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:credits;DB_CLOSE_DELAY=-1",
+        "hopl.pdf.cache.directory=target/test-pdf-cache"
+})
+class CreditServiceConcurrencyTest {
+
+    private static final int BALANCE = 5;
+    private static final int CALLERS = 40;
+
+    @Autowired
+    private CreditService creditService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CreditLedgerRepository ledgerRepository;
+
+    @Test
+    void concurrentReservationsNeverOverdraw() throws Exception {
+        User user = new User();
+        user.setEmail("credits@example.com");
+        user.setPassword("x");
+        user.setPlanType(PlanType.FULL_COMPLIANCE);
+        user.setCredits(BALANCE);
+        Long userId = userRepository.save(user).getId();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Boolean>> results = new ArrayList<>();
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        try {
+            for (int i = 0; i < CALLERS; i++) {
+                String reference = "test:" + i;
+                results.add(callers.submit(() -> {
+                    start.await();
+                    return creditService.reserveCredits(userId, 1, reference);
+                }));
+            }
+            start.countDown();
+            int reserved = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get()) {
+                    reserved++;
+                }
+            }
+
+            assertThat(reserved).isEqualTo(BALANCE);
+            assertThat(userRepository.findById(userId).orElseThrow().getCredits()).isZero();
+            List<CreditLedgerEntry> reservations = ledgerRepository.findAll().stream()
+                    .filter(entry -> entry.getUserId().equals(userId))
+                    .filter(entry -> entry.getReason() == CreditLedgerReason.RESERVE)
+                    .toList();
+            assertThat(reservations).hasSize(BALANCE);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+}
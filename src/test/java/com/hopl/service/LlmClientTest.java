@@ -0,0 +1,183 @@
+package com.hopl.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hopl.config.WorkerThreads;
+import com.hopl.exception.ApiException;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** Runs the client against a local stub of the chat completions endpoint. */
+class LlmClientTest {
+
+    private static final String COMPLETION = "{\"choices\":[{\"message\":{\"content\":\"Hello\"}}],"
+            + "\"usage\":{\"prompt_tokens\":12,\"completion_tokens\":3}}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final Queue<HttpHandler> replies = new ConcurrentLinkedQueue<>();
+    private final List<Long> arrivals = new CopyOnWriteArrayList<>();
+    private volatile HttpHandler otherwise = json(200, COMPLETION);
+    private HttpServer server;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/chat/completions", exchange -> {
+            arrivals.add(System.nanoTime());
+            exchange.getRequestBody().readAllBytes();
+            HttpHandler reply = replies.poll();
+            (reply != null ? reply : otherwise).handle(exchange);
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void waitsForRetryAfterBeforeRetryingRateLimitedCall() {
+        replies.add(status(429, "1"));
+        LlmClient client = client(3, 100, 5, 30, 200_000);
+
+        assertThat(client.complete("system", "prompt").text()).isEqualTo("Hello");
+
+        assertThat(arrivals).hasSize(2);
+        assertThat(gapMillis(0)).isBetween(1000L, 3000L);
+        // 429 is the provider pacing us, not a sign of an unhealthy upstream
+        assertThat(circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void retriesServerErrorsWithJitteredBackoffUntilCircuitOpens() throws Exception {
+        otherwise = status(500, null);
+        LlmClient client = client(3, 200, 2, 1, 200_000);
+
+        assertThatThrownBy(() -> client.complete("system", "prompt"))
+                .isInstanceOfSatisfying(ApiException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        // The second failure opens the circuit, so the third attempt is never sent
+        assertThat(arrivals).hasSize(2);
+        assertThat(gapMillis(0)).isBetween(100L, 1000L);
+        assertThat(circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThatThrownBy(() -> client.complete("system", "prompt")).isInstanceOf(ApiException.class);
+        assertThat(arrivals).hasSize(2);
+
+        // After open-seconds one trial call goes through and closes the circuit
+        otherwise = json(200, COMPLETION);
+        TimeUnit.MILLISECONDS.sleep(1100);
+        assertThat(client.complete("system", "prompt").text()).isEqualTo("Hello");
+        assertThat(arrivals).hasSize(3);
+        assertThat(circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void streamsCompletionAfterRetryingUnavailableUpstream() throws Exception {
+        replies.add(status(503, null));
+        otherwise = stream(List.of("Privacy", " Policy", "\n"));
+        LlmClient client = client(3, 50, 5, 30, 200_000);
+        List<String> chunks = new CopyOnWriteArrayList<>();
+
+        LlmClient.Completion completion = client.stream("system", "prompt", chunks::add).get(10, TimeUnit.SECONDS);
+
+        assertThat(completion.text()).isEqualTo("Privacy Policy\n");
+        assertThat(completion.promptTokens()).isEqualTo(12);
+        assertThat(chunks).containsExactly("Privacy", " Policy", "\n");
+        assertThat(arrivals).hasSize(2);
+        assertThat(circuitState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void refundsBudgetOfFailedCall() {
+        replies.add(status(400, null));
+        // Each call reserves about 1,000 tokens, so a second call only starts at once if the first was refunded
+        LlmClient client = client(3, 100, 5, 30, 1500);
+
+        assertThatThrownBy(() -> client.complete("system", "prompt")).isInstanceOf(ApiException.class);
+        assertThat(client.complete("system", "prompt").text()).isEqualTo("Hello");
+
+        assertThat(arrivals).hasSize(2);
+        assertThat(meterRegistry.get("hopl.llm.budget.wait").timer().max(TimeUnit.NANOSECONDS)).isZero();
+    }
+
+    private LlmClient client(int maxAttempts, long initialBackoffMillis, int failureThreshold, int openSeconds,
+                             int tokensPerMinute) {
+        return new LlmClient("sk-test", "gpt-test", "http://127.0.0.1:" + server.getAddress().getPort() + "/v1",
+                1000, 5, 10, maxAttempts, initialBackoffMillis, 30, failureThreshold, openSeconds, 500,
+                tokensPerMinute, new ObjectMapper(), new WorkerThreads(new MockEnvironment()), meterRegistry);
+    }
+
+    private CircuitBreaker.State circuitState() {
+        return CircuitBreaker.State.values()[(int) meterRegistry.get("hopl.llm.circuit.state").gauge().value()];
+    }
+
+    /** Milliseconds between the given request and the next. */
+    private long gapMillis(int request) {
+        return TimeUnit.NANOSECONDS.toMillis(arrivals.get(request + 1) - arrivals.get(request));
+    }
+
+    private static HttpHandler status(int status, String retryAfter) {
+        return exchange -> {
+            if (retryAfter != null) {
+                exchange.getResponseHeaders().set("Retry-After", retryAfter);
+            }
+            send(exchange, status, "application/json", "{}");
+        };
+    }
+
+    private static HttpHandler json(int status, String body) {
+        return exchange -> send(exchange, status, "application/json", body);
+    }
+
+    private static HttpHandler stream(List<String> deltas) {
+        return exchange -> {
+            List<String> events = new ArrayList<>();
+            for (String delta : deltas) {
+                events.add("{\"choices\":[{\"delta\":{\"content\":" + new ObjectMapper().writeValueAsString(delta) + "}}]}");
+            }
+            events.add("{\"choices\":[],\"usage\":{\"prompt_tokens\":12,\"completion_tokens\":3}}");
+            events.add("[DONE]");
+            exchange.getResponseHeaders().set("Content-Type", "text/event-stream");
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (String event : events) {
+                    out.write(("data: " + event + "\n\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                }
+            }
+        };
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}